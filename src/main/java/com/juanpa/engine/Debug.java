@@ -1,12 +1,25 @@
 package com.juanpa.engine;
 
+import org.lwjgl.opengl.GL;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL43;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.opengl.GLDebugMessageCallback;
 
 public class Debug
 {
 	static LOG_LEVEL logLevel = LOG_LEVEL.ALL;
 
+	// Development mode, -Dminocraft.glDebug=true: requests a debug context and logs driver messages
+	// from an asynchronous GL_DEBUG_OUTPUT callback instead of polling for errors.
+	public static final boolean GL_DEBUG = Boolean.getBoolean("minocraft.glDebug");
+	// glGetError polling, -Dminocraft.glErrorPolling=true. Off by default, since every poll can stall
+	// the pipeline. Hot call sites test this flag themselves, so release builds skip the message strings too.
+	public static final boolean GL_ERROR_POLLING = Boolean.getBoolean("minocraft.glErrorPolling");
+
+	private static GLDebugMessageCallback glDebugCallback;
+
 	public static void log(Object msg)
 	{
 		if(logLevel == LOG_LEVEL.NONE) return;
@@ -47,10 +60,16 @@ public class Debug
 	 * Checks for OpenGL errors and logs them.
 	 * Call this method after any OpenGL operation that might cause an error.
 	 *
+	 * Does nothing unless {@link #GL_ERROR_POLLING} is set.
+	 *
 	 * @param location A string describing where the check is being performed (e.g., "Shader compilation", "VAO binding").
 	 */
 	public static void checkGLError(String location)
 	{
+		if(!GL_ERROR_POLLING)
+		{
+			return;
+		}
 		int error = GL11.glGetError(); // Get the current OpenGL error code
 		if(error != GL11.GL_NO_ERROR)
 		{
@@ -90,6 +109,59 @@ public class Debug
 		}
 	}
 
+	/**
+	 * Installs the GL_DEBUG_OUTPUT callback when {@link #GL_DEBUG} is set. Call right after GL.createCapabilities().
+	 * The output is left asynchronous, so the driver reports messages without synchronising every call;
+	 * the reported call site may lag behind the call that caused it.
+	 */
+	public static void initGLDebugOutput()
+	{
+		if(!GL_DEBUG)
+		{
+			return;
+		}
+		GLCapabilities capabilities = GL.getCapabilities();
+		if(!capabilities.OpenGL43 && !capabilities.GL_KHR_debug)
+		{
+			logWarning("GL debug output requested, but the context supports neither GL 4.3 nor KHR_debug.");
+			return;
+		}
+
+		glDebugCallback = GLDebugMessageCallback.create((source, type, id, severity, length, message, userParam) ->
+		{
+			String text = "GL debug [" + id + "]: " + GLDebugMessageCallback.getMessage(length, message);
+			switch(severity)
+			{
+				case GL43.GL_DEBUG_SEVERITY_HIGH:
+					logError(text);
+					break;
+				case GL43.GL_DEBUG_SEVERITY_MEDIUM:
+					logWarning(text);
+					break;
+				default:
+					logInfo(text);
+					break;
+			}
+		});
+		GL11.glEnable(GL43.GL_DEBUG_OUTPUT);
+		GL43.glDebugMessageCallback(glDebugCallback, 0L);
+		// Notifications are mostly buffer placement chatter, one per upload on some drivers
+		GL43.glDebugMessageControl(GL11.GL_DONT_CARE, GL11.GL_DONT_CARE, GL43.GL_DEBUG_SEVERITY_NOTIFICATION, (int[]) null, false);
+		logInfo("GL debug output enabled.");
+	}
+
+	/**
+	 * Frees the debug callback, if any. Call once the GL context is no longer used.
+	 */
+	public static void cleanupGLDebugOutput()
+	{
+		if(glDebugCallback != null)
+		{
+			glDebugCallback.free();
+			glDebugCallback = null;
+		}
+	}
+
 	public enum LOG_LEVEL
 	{
 		NONE, ERROR, WARNING, INFO, ALL
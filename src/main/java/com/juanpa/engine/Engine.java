@@ -76,6 +76,7 @@ public class Engine
 
 			// Store the calculated delta time in the Time utility class
 			Time.deltaTime = (float) frameTime; // Cast to float as deltaTime is float
+			Time.time = (float) currentTime;
 
 			// 2. Game Update: Call the Game's update method as fast as possible
 			// The game.update() method in your Game class will now implicitly use Time.deltaTime
@@ -3,4 +3,5 @@ package com.juanpa.engine;
 public class Time 
 {
     public static float deltaTime;
+    public static float time; // Seconds since the engine started
 }
@@ -49,6 +49,10 @@ public class Window
 		glfwWindowHint(GLFW_CONTEXT_VERSION_MAJOR, 4);
 		glfwWindowHint(GLFW_CONTEXT_VERSION_MINOR, 6);
 		glfwWindowHint(GLFW_OPENGL_PROFILE, GLFW_OPENGL_CORE_PROFILE);
+		if(Debug.GL_DEBUG)
+		{
+			glfwWindowHint(GLFW_OPENGL_DEBUG_CONTEXT, GLFW_TRUE);
+		}
 
 
 		//Create the window handle
@@ -62,6 +66,7 @@ public class Window
 		glfwMakeContextCurrent(windowHandle);
 		//Makes OpenGL's functions available for the current context
 		GL.createCapabilities();
+		Debug.initGLDebugOutput();
 
 		//Set the vsync state
 		int swapInterval = vsync ? 1 : 0;
@@ -123,6 +128,7 @@ public class Window
 		glfwSetWindowSize(windowHandle, 1, 1); // Optional: Resize to tiny before destroying
 		// Free the window callbacks and destroy the window
 		glfwDestroyWindow(windowHandle);
+		Debug.cleanupGLDebugOutput(); // The context is gone, nothing can call back anymore
 		// Terminate GLFW. This needs to be called when the application exits.
 		glfwTerminate();
 		// Free the error callback
@@ -24,6 +24,7 @@ public class Camera extends Component
 	private Matrix4f viewMatrix = new Matrix4f();
 	private Matrix4f projectionMatrix = new Matrix4f();
 	private Matrix4f viewProjectionMatrix = new Matrix4f(); // Combined matrix
+	private Vector3f eyePosition = new Vector3f(); // World position the view matrix looks from
 
 	private float mouseSensitivity = 0.1f;
 	private float maxPitch = 89.0f;
@@ -96,12 +97,12 @@ public class Camera extends Component
 					.rotateX((float) Math.toRadians(currentPitch));
 		}
 
-		Vector3f cameraEyePosition = new Vector3f(transform.position).add(offset);
+		eyePosition.set(transform.position).add(offset);
 
 		// Update view matrix
 		viewMatrix.identity();
 		viewMatrix.rotation(transform.rotation.conjugate(new Quaternionf()))
-				.translate(cameraEyePosition.negate(new Vector3f()));
+				.translate(-eyePosition.x, -eyePosition.y, -eyePosition.z);
 
 		// Update projection matrix
 		float aspectRatio = (float) Engine.width / (float) Engine.height;
@@ -139,9 +140,17 @@ public class Camera extends Component
 		return this.viewProjectionMatrix;
 	}
 
+	public Vector3f getEyePosition()
+	{
+		return this.eyePosition;
+	}
+
 	public void setAspectRatio(float aspectRatio)
 	{
 		updateProjectionMatrix(aspectRatio);
+		// Keep the combined matrix and the frustum in step with the new projection
+		projectionMatrix.mul(viewMatrix, viewProjectionMatrix);
+		frustum.update(viewProjectionMatrix);
 	}
 
 	// --- NEW: Frustum Accessor for external classes ---
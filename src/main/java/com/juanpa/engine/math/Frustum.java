@@ -76,16 +76,36 @@ public class Frustum {
 		boolean intersect = false;
 
 		for (Plane plane : planes) {
-			Vector3f nVertex = aabb.getNVertex(plane.normal);
-			if (plane.getSignedDistance(nVertex) < 0) {
+			// The P-vertex is the corner furthest along the normal: if even it is behind the plane, the whole box is
+			Vector3f pVertex = aabb.getPVertex(plane.normal);
+			if (plane.getSignedDistance(pVertex) < 0) {
 				return FrustumResult.OUTSIDE;
 			}
 
-			Vector3f pVertex = aabb.getPVertex(plane.normal);
-			if (plane.getSignedDistance(pVertex) < 0) {
+			Vector3f nVertex = aabb.getNVertex(plane.normal);
+			if (plane.getSignedDistance(nVertex) < 0) {
 				intersect = true;
 			}
 		}
 		return intersect ? FrustumResult.INTERSECT : FrustumResult.INSIDE;
 	}
+
+	/**
+	 * Allocation-free visibility test for an axis-aligned box, for per-frame loops over many boxes.
+	 * Conservative like {@link #intersects(AABB)}: a box near a frustum corner may pass while being outside.
+	 *
+	 * @return false if the box is completely outside the frustum.
+	 */
+	public boolean isBoxVisible(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+		for (Plane plane : planes) {
+			Vector3f n = plane.normal;
+			float pX = n.x >= 0 ? maxX : minX;
+			float pY = n.y >= 0 ? maxY : minY;
+			float pZ = n.z >= 0 ? maxZ : minZ;
+			if (n.x * pX + n.y * pY + n.z * pZ + plane.distance < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
 }
\ No newline at end of file
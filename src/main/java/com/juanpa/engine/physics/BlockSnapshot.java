@@ -0,0 +1,67 @@
+package com.juanpa.engine.physics;
+
+import com.juanpa.engine.world.BlockReader;
+
+/**
+ * Solid flags of a small box of blocks, copied once per move so the three axis sweeps
+ * read a flat array instead of going back to the world for overlapping cells.
+ * Cells outside the captured box are read from the world directly.
+ */
+class BlockSnapshot
+{
+	private boolean[] solid = new boolean[64];
+	private BlockReader blocks;
+	private int originX;
+	private int originY;
+	private int originZ;
+	private int sizeX;
+	private int sizeY;
+	private int sizeZ; // 0 when nothing is captured
+
+	/**
+	 * Captures blocks [minX, maxX] x [minY, maxY] x [minZ, maxZ], or nothing if that is more than maxBlocks.
+	 */
+	void capture(BlockReader blocks, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int maxBlocks)
+	{
+		this.blocks = blocks;
+		long count = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+		if(count > maxBlocks)
+		{
+			sizeX = sizeY = sizeZ = 0;
+			return;
+		}
+		originX = minX;
+		originY = minY;
+		originZ = minZ;
+		sizeX = maxX - minX + 1;
+		sizeY = maxY - minY + 1;
+		sizeZ = maxZ - minZ + 1;
+		if(solid.length < count)
+		{
+			solid = new boolean[(int) count];
+		}
+		int i = 0;
+		for(int y = 0; y < sizeY; y++)
+		{
+			for(int z = 0; z < sizeZ; z++)
+			{
+				for(int x = 0; x < sizeX; x++)
+				{
+					solid[i++] = blocks.isSolid(originX + x, originY + y, originZ + z);
+				}
+			}
+		}
+	}
+
+	boolean isSolid(int x, int y, int z)
+	{
+		int lx = x - originX;
+		int ly = y - originY;
+		int lz = z - originZ;
+		if(lx < 0 || ly < 0 || lz < 0 || lx >= sizeX || ly >= sizeY || lz >= sizeZ)
+		{
+			return blocks.isSolid(x, y, z);
+		}
+		return solid[lx + sizeX * (lz + sizeZ * ly)];
+	}
+}
@@ -0,0 +1,25 @@
+package com.juanpa.engine.physics;
+
+/**
+ * Outcome of one {@link VoxelCollider#move} call. Meant to be reused every frame.
+ */
+public class CollisionResult
+{
+	public boolean hitX; // The move was stopped along X
+	public boolean hitY;
+	public boolean hitZ;
+	public float timeOfImpact; // Fraction of the requested motion travelled when the first axis was stopped, 1 if nothing was hit
+
+	public void reset()
+	{
+		hitX = false;
+		hitY = false;
+		hitZ = false;
+		timeOfImpact = 1.0f;
+	}
+
+	public boolean hitAny()
+	{
+		return hitX || hitY || hitZ;
+	}
+}
@@ -0,0 +1,28 @@
+package com.juanpa.engine.physics;
+
+/**
+ * Result of a {@link VoxelRaycaster} cast. Meant to be reused, it is overwritten by every cast.
+ */
+public class RaycastHit
+{
+	public int blockX; // The solid block that was hit
+	public int blockY;
+	public int blockZ;
+	public int normalX; // Outward normal of the face the ray entered through, one axis is +-1
+	public int normalY;
+	public int normalZ;
+	public float distance; // Along the ray, to the entry point of the hit block
+	public short blockID;
+
+	void set(int blockX, int blockY, int blockZ, int normalX, int normalY, int normalZ, float distance, short blockID)
+	{
+		this.blockX = blockX;
+		this.blockY = blockY;
+		this.blockZ = blockZ;
+		this.normalX = normalX;
+		this.normalY = normalY;
+		this.normalZ = normalZ;
+		this.distance = distance;
+		this.blockID = blockID;
+	}
+}
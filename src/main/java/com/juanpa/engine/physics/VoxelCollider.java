@@ -0,0 +1,161 @@
+package com.juanpa.engine.physics;
+
+import com.juanpa.engine.math.AABB;
+import com.juanpa.engine.world.BlockReader;
+import org.joml.Vector3f;
+
+/**
+ * Swept AABB collision against the block grid.
+ *
+ * A move is resolved one axis at a time (Y, then X, then Z). Along each axis only the block layers
+ * the box's leading face crosses are tested, nearest first, and the box stops right before the first solid one.
+ * Nothing is skipped however far the box moves in one frame, so there is no tunnelling at high speed or
+ * low frame rates, and the cost is the swept volume, not a fixed grid of samples.
+ *
+ * Blocks come from a {@link BlockSnapshot} of the area the move can touch, taken once per move.
+ * Any non-air block is solid.
+ */
+public class VoxelCollider
+{
+	public static final float CONTACT_EPSILON = 0.001f; // Gap left between a stopped box and the block it hit
+	private static final float TOLERANCE = CONTACT_EPSILON * 0.5f; // Faces this close to a block boundary count as on it
+	private static final int MAX_SNAPSHOT_BLOCKS = 4096; // Larger moves read the world directly
+
+	private static final int AXIS_X = 0;
+	private static final int AXIS_Y = 1;
+	private static final int AXIS_Z = 2;
+
+	private final BlockSnapshot snapshot = new BlockSnapshot();
+	private boolean sweepHit; // Whether the last sweepAxis call was stopped by a block
+
+	/**
+	 * Moves a box through the world by the given displacement, stopping it against solid blocks.
+	 *
+	 * @param box          Box to move, updated in place.
+	 * @param displacement Requested motion in blocks, not modified.
+	 * @param blocks       Where to read blocks from.
+	 * @param result       Filled with the axes that were stopped and the time of impact.
+	 */
+	public void move(AABB box, Vector3f displacement, BlockReader blocks, CollisionResult result)
+	{
+		result.reset();
+		snapshot.capture(blocks,
+				floor(Math.min(box.min.x, box.min.x + displacement.x)) - 1,
+				floor(Math.min(box.min.y, box.min.y + displacement.y)) - 1,
+				floor(Math.min(box.min.z, box.min.z + displacement.z)) - 1,
+				ceil(Math.max(box.max.x, box.max.x + displacement.x)),
+				ceil(Math.max(box.max.y, box.max.y + displacement.y)),
+				ceil(Math.max(box.max.z, box.max.z + displacement.z)),
+				MAX_SNAPSHOT_BLOCKS);
+
+		result.hitY = moveAxis(box, AXIS_Y, displacement.y, result);
+		result.hitX = moveAxis(box, AXIS_X, displacement.x, result);
+		result.hitZ = moveAxis(box, AXIS_Z, displacement.z, result);
+	}
+
+	/**
+	 * Sweeps the box along one axis and moves it as far as it gets.
+	 *
+	 * @return true if a block stopped it.
+	 */
+	private boolean moveAxis(AABB box, int axis, float delta, CollisionResult result)
+	{
+		if(delta == 0)
+		{
+			return false;
+		}
+		float allowed = sweepAxis(box, axis, delta);
+		box.min.setComponent(axis, box.min.get(axis) + allowed);
+		box.max.setComponent(axis, box.max.get(axis) + allowed);
+		if(!sweepHit)
+		{
+			return false;
+		}
+		result.timeOfImpact = Math.min(result.timeOfImpact, allowed / delta);
+		return true;
+	}
+
+	/**
+	 * How far the box can move along the axis, between 0 and delta. Sets sweepHit.
+	 */
+	private float sweepAxis(AABB box, int axis, float delta)
+	{
+		sweepHit = true;
+		int axisB = (axis + 1) % 3;
+		int axisC = (axis + 2) % 3;
+		// Blocks the box's cross section overlaps, a face lying on a boundary doesn't overlap the next block
+		int minB = floor(box.min.get(axisB) + TOLERANCE);
+		int maxB = ceil(box.max.get(axisB) - TOLERANCE) - 1;
+		int minC = floor(box.min.get(axisC) + TOLERANCE);
+		int maxC = ceil(box.max.get(axisC) - TOLERANCE) - 1;
+
+		if(delta > 0)
+		{
+			float leading = box.max.get(axis);
+			// Layers whose near face lies in [leading, leading + delta), a block the box already overlaps is ignored
+			int last = ceil(leading + delta) - 1;
+			for(int layer = ceil(leading - TOLERANCE); layer <= last; layer++)
+			{
+				if(isLayerSolid(axis, layer, minB, maxB, minC, maxC))
+				{
+					return Math.max(0.0f, layer - CONTACT_EPSILON - leading);
+				}
+			}
+		}
+		else
+		{
+			float leading = box.min.get(axis);
+			int last = floor(leading + delta);
+			for(int layer = floor(leading + TOLERANCE) - 1; layer >= last; layer--)
+			{
+				if(isLayerSolid(axis, layer, minB, maxB, minC, maxC))
+				{
+					return Math.min(0.0f, layer + 1 + CONTACT_EPSILON - leading);
+				}
+			}
+		}
+		sweepHit = false;
+		return delta;
+	}
+
+	/**
+	 * True if any block of the layer at the given coordinate along the axis, within the cross section, is solid.
+	 */
+	private boolean isLayerSolid(int axis, int layer, int minB, int maxB, int minC, int maxC)
+	{
+		for(int b = minB; b <= maxB; b++)
+		{
+			for(int c = minC; c <= maxC; c++)
+			{
+				boolean solid;
+				if(axis == AXIS_X)
+				{
+					solid = snapshot.isSolid(layer, b, c); // B = Y, C = Z
+				}
+				else if(axis == AXIS_Y)
+				{
+					solid = snapshot.isSolid(c, layer, b); // B = Z, C = X
+				}
+				else
+				{
+					solid = snapshot.isSolid(b, c, layer); // B = X, C = Y
+				}
+				if(solid)
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static int floor(float value)
+	{
+		return (int) Math.floor(value);
+	}
+
+	private static int ceil(float value)
+	{
+		return (int) Math.ceil(value);
+	}
+}
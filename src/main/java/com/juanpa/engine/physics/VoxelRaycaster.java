@@ -0,0 +1,241 @@
+package com.juanpa.engine.physics;
+
+import com.juanpa.engine.world.BlockReader;
+import com.juanpa.engine.world.World;
+import com.juanpa.engine.world.chunk.BrickOccupancy;
+import com.juanpa.engine.world.chunk.Chunk;
+
+/**
+ * Ray casts against the block grid with the Amanatides-Woo voxel traversal: the ray walks from voxel to voxel,
+ * always crossing the nearest grid plane next, so every voxel it passes through is visited exactly once, corners
+ * included, and the face it entered through is known exactly.
+ *
+ * Empty space is crossed in large steps using the chunks' occupancy index: a chunk that is not loaded or has no
+ * non-air block is crossed in a single step, straight to the first voxel of the next chunk, and so is an empty
+ * 8x8x8 brick inside a loaded chunk. A long ray through the sky or a cave costs a few steps per chunk or brick
+ * instead of one per block. A chunk made of one solid block type is hit on entry, since every voxel in it is solid.
+ *
+ * Keeps its traversal state in fields, so a cast allocates nothing. Reuse one instance per caller, main thread only.
+ */
+public class VoxelRaycaster
+{
+	private final float[] direction = new float[3];
+	private final int[] voxel = new int[3];
+	private final int[] step = new int[3];
+	private final float[] tMax = new float[3]; // Ray distance at which the next plane of each axis is crossed
+	private final float[] tDelta = new float[3]; // Ray distance between two planes of each axis
+	private final int[] stepsToCellExit = new int[3];
+	private int lastAxis; // Axis of the plane crossed to enter the current voxel, -1 for the starting voxel
+	private float hitDistance; // Ray distance at which the block found by the last march was entered
+
+	/**
+	 * Finds the first non-air block along a ray.
+	 *
+	 * @param maxDistance How far along the ray to search, in blocks.
+	 * @param blocks      Where to read blocks from.
+	 * @param hit         Filled in when something is hit.
+	 * @return true if a block was hit within maxDistance.
+	 */
+	public boolean cast(float originX, float originY, float originZ, float directionX, float directionY, float directionZ,
+			float maxDistance, BlockReader blocks, RaycastHit hit)
+	{
+		if(!begin(originX, originY, originZ, directionX, directionY, directionZ))
+		{
+			return false;
+		}
+		short blockID = march(maxDistance, blocks);
+		if(blockID == World.BLOCK_TYPE_AIR_ID)
+		{
+			return false;
+		}
+		setHit(hit, hitDistance, blockID);
+		return true;
+	}
+
+	/**
+	 * Checks whether the segment between two points crosses no non-air block, e.g. whether one entity can see another.
+	 * A block the segment only touches at its end point doesn't block it.
+	 *
+	 * @param blocks Where to read blocks from.
+	 * @return true if nothing lies between the points. Always true if they are the same point.
+	 */
+	public boolean hasLineOfSight(float fromX, float fromY, float fromZ, float toX, float toY, float toZ, BlockReader blocks)
+	{
+		float dx = toX - fromX;
+		float dy = toY - fromY;
+		float dz = toZ - fromZ;
+		if(!begin(fromX, fromY, fromZ, dx, dy, dz))
+		{
+			return true;
+		}
+		float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+		// March stops past maxDistance only, so the voxel entered exactly at the end point has to be excluded here
+		return march(Math.nextDown(distance), blocks) == World.BLOCK_TYPE_AIR_ID;
+	}
+
+	/**
+	 * Walks the ray set up by begin until it enters a non-air block or passes maxDistance.
+	 *
+	 * @return The block hit, with its distance in hitDistance, or air if there was none.
+	 */
+	private short march(float maxDistance, BlockReader blocks)
+	{
+		float t = 0.0f;
+		while(t <= maxDistance)
+		{
+			Chunk chunk = blocks.getChunkOfBlock(voxel[0], voxel[1], voxel[2]);
+			if(chunk == null || chunk.isEmpty())
+			{
+				t = skipCell(Chunk.CHUNK_MASK); // Nothing to hit anywhere in it
+				continue;
+			}
+			int localX = voxel[0] & Chunk.CHUNK_MASK;
+			int localY = voxel[1] & Chunk.CHUNK_MASK;
+			int localZ = voxel[2] & Chunk.CHUNK_MASK;
+			if(chunk.isBrickEmpty(localX, localY, localZ))
+			{
+				t = skipCell(BrickOccupancy.BRICK_MASK);
+				continue;
+			}
+			// Uniform chunks have no block array, this returns their single block straight away
+			short blockID = chunk.getBlock(localX, localY, localZ);
+			if(blockID != World.BLOCK_TYPE_AIR_ID)
+			{
+				hitDistance = t;
+				return blockID;
+			}
+			t = stepVoxel();
+		}
+		return World.BLOCK_TYPE_AIR_ID;
+	}
+
+	/**
+	 * Sets up the traversal state for a ray.
+	 *
+	 * @return false if the direction is zero.
+	 */
+	private boolean begin(float originX, float originY, float originZ, float directionX, float directionY, float directionZ)
+	{
+		float length = (float) Math.sqrt(directionX * directionX + directionY * directionY + directionZ * directionZ);
+		if(length == 0.0f)
+		{
+			return false;
+		}
+		direction[0] = directionX / length;
+		direction[1] = directionY / length;
+		direction[2] = directionZ / length;
+		initAxis(0, originX);
+		initAxis(1, originY);
+		initAxis(2, originZ);
+		lastAxis = -1;
+		return true;
+	}
+
+	private void initAxis(int axis, float origin)
+	{
+		float d = direction[axis];
+		voxel[axis] = (int) Math.floor(origin);
+		if(d > 0)
+		{
+			step[axis] = 1;
+			tDelta[axis] = 1.0f / d;
+			tMax[axis] = (voxel[axis] + 1 - origin) / d;
+		}
+		else if(d < 0)
+		{
+			step[axis] = -1;
+			tDelta[axis] = -1.0f / d;
+			tMax[axis] = (voxel[axis] - origin) / d;
+		}
+		else
+		{
+			step[axis] = 0;
+			tDelta[axis] = Float.POSITIVE_INFINITY;
+			tMax[axis] = Float.POSITIVE_INFINITY;
+		}
+	}
+
+	/**
+	 * Moves to the next voxel along the ray.
+	 *
+	 * @return Ray distance at which that voxel is entered.
+	 */
+	private float stepVoxel()
+	{
+		int axis = tMax[0] < tMax[1] ? (tMax[0] < tMax[2] ? 0 : 2) : (tMax[1] < tMax[2] ? 1 : 2);
+		float t = tMax[axis];
+		voxel[axis] += step[axis];
+		tMax[axis] += tDelta[axis];
+		lastAxis = axis;
+		return t;
+	}
+
+	/**
+	 * Moves straight to the first voxel outside the current cell, a chunk or a brick, advancing every axis by the
+	 * number of planes the ray crosses on the way.
+	 *
+	 * @param cellMask Cell size minus one, the cell size being a power of two aligned on the block grid.
+	 * @return Ray distance at which the new voxel is entered.
+	 */
+	private float skipCell(int cellMask)
+	{
+		int exitAxis = -1;
+		float tExit = Float.POSITIVE_INFINITY;
+		for(int axis = 0; axis < 3; axis++)
+		{
+			if(step[axis] == 0)
+			{
+				continue;
+			}
+			int cellMin = voxel[axis] & ~cellMask;
+			int steps = step[axis] > 0 ? cellMin + cellMask + 1 - voxel[axis] : voxel[axis] - cellMin + 1;
+			stepsToCellExit[axis] = steps;
+			float axisExit = tMax[axis] + (steps - 1) * tDelta[axis];
+			if(axisExit < tExit)
+			{
+				tExit = axisExit;
+				exitAxis = axis;
+			}
+		}
+
+		for(int axis = 0; axis < 3; axis++)
+		{
+			if(step[axis] == 0)
+			{
+				continue;
+			}
+			int steps;
+			if(axis == exitAxis)
+			{
+				steps = stepsToCellExit[axis];
+			}
+			else
+			{
+				// Planes of this axis crossed strictly before the exit, which never leave the cell
+				steps = tMax[axis] >= tExit ? 0 : (int) Math.ceil((tExit - tMax[axis]) / tDelta[axis]);
+				steps = Math.min(steps, stepsToCellExit[axis] - 1);
+			}
+			voxel[axis] += steps * step[axis];
+			tMax[axis] += steps * tDelta[axis];
+		}
+		lastAxis = exitAxis;
+		return tExit;
+	}
+
+	private void setHit(RaycastHit hit, float t, short blockID)
+	{
+		int axis = lastAxis;
+		if(axis < 0)
+		{
+			// Started inside the block: report the face facing back along the ray's main direction
+			float ax = Math.abs(direction[0]);
+			float ay = Math.abs(direction[1]);
+			float az = Math.abs(direction[2]);
+			axis = ax >= ay && ax >= az ? 0 : (ay >= az ? 1 : 2);
+		}
+		int normal = direction[axis] > 0 ? -1 : 1; // The entered face points against the step
+		hit.set(voxel[0], voxel[1], voxel[2],
+				axis == 0 ? normal : 0, axis == 1 ? normal : 0, axis == 2 ? normal : 0,
+				t, blockID);
+	}
+}
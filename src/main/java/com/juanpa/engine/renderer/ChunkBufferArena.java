@@ -0,0 +1,293 @@
+package com.juanpa.engine.renderer;
+
+import com.juanpa.engine.Debug;
+import com.juanpa.engine.world.chunk.ChunkMesh;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31; // For glCopyBufferSubData
+import org.lwjgl.opengl.GL33; // For glVertexAttribDivisor
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * One large instance VBO shared by every chunk mesh, plus the one VAO that reads from it.
+ * Meshes get a range of quads from a first-fit free-list allocator instead of their own buffer,
+ * and are drawn with their range start as the base instance, so drawing never rebinds a VAO.
+ *
+ * Ranges are handed out in granules of {@link #GRANULE_QUADS} quads, so a remesh that grows
+ * a little usually still fits in place. Freed ranges are merged with adjacent free ranges.
+ * When no free range is big enough the buffer is relocated: the live ranges are copied
+ * back to back into a new buffer (bigger if needed) on the GPU, which also defragments it.
+ *
+ * Main thread only, every method touches GL state.
+ */
+public class ChunkBufferArena
+{
+	private static final int GRANULE_QUADS = 64;
+	private static final int INITIAL_CAPACITY_QUADS = 1 << 20; // 8 MB of packed quads
+	private static final int DEFRAGMENT_FREE_RANGE_LIMIT = 1024; // Compact once the free list is this fragmented
+
+	private int vaoID;
+	private int bufferID;
+	private int capacity; // In quads
+
+	private final TreeMap<Integer, Integer> freeRanges = new TreeMap<>(); // Start -> length, both in quads
+	private final Set<Allocation> allocations = new LinkedHashSet<>();
+	private int usedQuads;
+
+	/**
+	 * @param baseQuadVBO The shared unit quad read as the per-vertex attribute 0, see {@link ChunkMesh#initBaseQuad()}.
+	 */
+	public ChunkBufferArena(int baseQuadVBO)
+	{
+		vaoID = GL30.glGenVertexArrays();
+		GL30.glBindVertexArray(vaoID);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, baseQuadVBO);
+		GL20.glEnableVertexAttribArray(0); // Shader location 0: vec2 a_baseVertexPos
+		GL20.glVertexAttribPointer(0, 2, GL11.GL_FLOAT, false, 0, 0);
+		GL30.glBindVertexArray(0);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+		bufferID = createBuffer(INITIAL_CAPACITY_QUADS);
+		capacity = INITIAL_CAPACITY_QUADS;
+		attachInstanceBuffer();
+		freeRanges.put(0, capacity);
+		Debug.logInfo("Chunk buffer arena initialized with room for " + capacity + " quads.");
+	}
+
+	/**
+	 * Reserves room for at least the given number of quads.
+	 * Never fails: the buffer grows if no free range is big enough.
+	 */
+	public Allocation allocate(int quadCount)
+	{
+		int length = roundUpToGranule(quadCount);
+		int start = findFreeRange(length);
+		if(start < 0)
+		{
+			int free = capacity - usedQuads;
+			// Enough space in total means it is only fragmented, compacting in place is enough
+			relocate(free >= length ? capacity : Math.max(capacity * 2, usedQuads + length));
+			start = findFreeRange(length);
+		}
+
+		int freeLength = freeRanges.remove(start);
+		if(freeLength > length)
+		{
+			freeRanges.put(start + length, freeLength - length);
+		}
+		Allocation allocation = new Allocation(start, length);
+		allocations.add(allocation);
+		usedQuads += length;
+		return allocation;
+	}
+
+	/**
+	 * Returns a range to the free list. Freeing the same allocation twice is a no-op.
+	 */
+	public void free(Allocation allocation)
+	{
+		if(allocation == null || !allocations.remove(allocation))
+		{
+			return;
+		}
+		usedQuads -= allocation.length;
+
+		int start = allocation.start;
+		int length = allocation.length;
+		// Merge with the free range right before and right after, so free space doesn't splinter
+		Map.Entry<Integer, Integer> before = freeRanges.floorEntry(start);
+		if(before != null && before.getKey() + before.getValue() == start)
+		{
+			start = before.getKey();
+			length += before.getValue();
+			freeRanges.remove(before.getKey());
+		}
+		Integer afterLength = freeRanges.remove(start + length);
+		if(afterLength != null)
+		{
+			length += afterLength;
+		}
+		freeRanges.put(start, length);
+	}
+
+	/**
+	 * Writes packed quads at the start of an allocation. The data must fit in the allocation.
+	 */
+	public void upload(Allocation allocation, ByteBuffer packedQuads)
+	{
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, bufferID);
+		GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, (long) allocation.start * ChunkMesh.BYTES_PER_QUAD, packedQuads);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+	}
+
+	/**
+	 * Compacts the buffer if frees have split the free space into too many small ranges.
+	 * Meant to be called once per frame, outside of any draw loop.
+	 */
+	public void defragmentIfNeeded()
+	{
+		if(freeRanges.size() > DEFRAGMENT_FREE_RANGE_LIMIT)
+		{
+			relocate(capacity);
+		}
+	}
+
+	public void bind()
+	{
+		GL30.glBindVertexArray(vaoID);
+	}
+
+	public void unbind()
+	{
+		GL30.glBindVertexArray(0);
+	}
+
+	public int getBufferID()
+	{
+		return bufferID;
+	}
+
+	public int getCapacityQuads()
+	{
+		return capacity;
+	}
+
+	public int getUsedQuads()
+	{
+		return usedQuads;
+	}
+
+	public int getFreeRangeCount()
+	{
+		return freeRanges.size();
+	}
+
+	public void cleanup()
+	{
+		if(vaoID != 0)
+		{
+			GL30.glBindVertexArray(0);
+			GL15.glDeleteBuffers(bufferID);
+			GL30.glDeleteVertexArrays(vaoID);
+			vaoID = 0;
+			bufferID = 0;
+			allocations.clear();
+			freeRanges.clear();
+			usedQuads = 0;
+		}
+	}
+
+	private int findFreeRange(int length)
+	{
+		for(Map.Entry<Integer, Integer> range : freeRanges.entrySet())
+		{
+			if(range.getValue() >= length)
+			{
+				return range.getKey();
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Moves every live allocation, back to back, into a new buffer of the given capacity.
+	 * Copies stay on the GPU. Afterwards all free space is a single range at the end.
+	 */
+	private void relocate(int newCapacity)
+	{
+		int newBufferID = createBuffer(newCapacity);
+
+		GL15.glBindBuffer(GL31.GL_COPY_READ_BUFFER, bufferID);
+		GL15.glBindBuffer(GL31.GL_COPY_WRITE_BUFFER, newBufferID);
+		int next = 0;
+		for(Allocation allocation : allocations)
+		{
+			GL31.glCopyBufferSubData(GL31.GL_COPY_READ_BUFFER, GL31.GL_COPY_WRITE_BUFFER,
+					(long) allocation.start * ChunkMesh.BYTES_PER_QUAD,
+					(long) next * ChunkMesh.BYTES_PER_QUAD,
+					(long) allocation.length * ChunkMesh.BYTES_PER_QUAD);
+			allocation.start = next;
+			next += allocation.length;
+		}
+		GL15.glBindBuffer(GL31.GL_COPY_READ_BUFFER, 0);
+		GL15.glBindBuffer(GL31.GL_COPY_WRITE_BUFFER, 0);
+
+		GL15.glDeleteBuffers(bufferID);
+		bufferID = newBufferID;
+		capacity = newCapacity;
+		freeRanges.clear();
+		if(next < capacity)
+		{
+			freeRanges.put(next, capacity - next);
+		}
+
+		attachInstanceBuffer(); // The VAO captured the old buffer in attribute 1
+
+		Debug.logInfo("Chunk buffer arena relocated: " + usedQuads + " / " + capacity + " quads used.");
+		if(Debug.GL_ERROR_POLLING) Debug.checkGLError("ChunkBufferArena: relocate");
+	}
+
+	private int createBuffer(int capacityQuads)
+	{
+		int id = GL15.glGenBuffers();
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, id);
+		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) capacityQuads * ChunkMesh.BYTES_PER_QUAD, GL15.GL_DYNAMIC_DRAW);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+		return id;
+	}
+
+	private void attachInstanceBuffer()
+	{
+		GL30.glBindVertexArray(vaoID);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, bufferID);
+		GL20.glEnableVertexAttribArray(1); // Attribute 1: uvec2 i_packed, an integer attribute so the bits reach the shader untouched
+		GL30.glVertexAttribIPointer(1, ChunkMesh.INTS_PER_QUAD, GL11.GL_UNSIGNED_INT, ChunkMesh.BYTES_PER_QUAD, 0);
+		GL33.glVertexAttribDivisor(1, 1); // Data per instance
+		GL30.glBindVertexArray(0);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+	}
+
+	private static int roundUpToGranule(int quadCount)
+	{
+		return Math.max(GRANULE_QUADS, (quadCount + GRANULE_QUADS - 1) / GRANULE_QUADS * GRANULE_QUADS);
+	}
+
+	/**
+	 * A range of quads in the arena. Its start can change when the arena is compacted,
+	 * so it is read at draw time rather than cached.
+	 */
+	public static class Allocation
+	{
+		private int start;
+		private final int length;
+
+		private Allocation(int start, int length)
+		{
+			this.start = start;
+			this.length = length;
+		}
+
+		/**
+		 * @return First quad of the range, used as the base instance when drawing.
+		 */
+		public int getStart()
+		{
+			return start;
+		}
+
+		/**
+		 * @return Number of quads reserved, at least the number uploaded.
+		 */
+		public int getLength()
+		{
+			return length;
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package com.juanpa.engine.renderer;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL40; // For GL_DRAW_INDIRECT_BUFFER
+import org.lwjgl.opengl.GL43; // For glMultiDrawArraysIndirect and shader storage buffers
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.IntBuffer;
+
+/**
+ * Collects one indirect draw per visible chunk and submits them all with a single glMultiDrawArraysIndirect.
+ *
+ * Each draw is a DrawArraysIndirectCommand {count, instanceCount, first, baseInstance}: the 4 vertex base
+ * quad instanced over the chunk's quads, starting at its range in the {@link ChunkBufferArena}.
+ * The chunk's world origin goes into a shader storage buffer at the same index, which main.vert
+ * reads with gl_DrawID, so no uniform changes between draws.
+ *
+ * Both buffers are re-specified every frame (glBufferData orphans the old storage), so the
+ * CPU never waits on the GPU still reading the previous frame's commands.
+ */
+public class ChunkDrawCommandBuffer
+{
+	public static final int CHUNK_ORIGINS_BINDING = 0; // layout(std430, binding = 0) in main.vert
+
+	private static final int INTS_PER_COMMAND = 4;
+	private static final int INTS_PER_ORIGIN = 4; // ivec4, std430 pads ivec3 array elements to 16 bytes anyway
+	private static final int INITIAL_CAPACITY = 1024; // Draws, grows as needed
+
+	private int commandBufferID;
+	private int originBufferID;
+	private IntBuffer commands;
+	private IntBuffer origins;
+	private int drawCount;
+
+	public ChunkDrawCommandBuffer()
+	{
+		commandBufferID = GL15.glGenBuffers();
+		originBufferID = GL15.glGenBuffers();
+		commands = MemoryUtil.memAllocInt(INITIAL_CAPACITY * INTS_PER_COMMAND);
+		origins = MemoryUtil.memAllocInt(INITIAL_CAPACITY * INTS_PER_ORIGIN);
+	}
+
+	/**
+	 * Starts collecting a new frame's draws.
+	 */
+	public void clear()
+	{
+		commands.clear();
+		origins.clear();
+		drawCount = 0;
+	}
+
+	/**
+	 * Adds one chunk draw.
+	 *
+	 * @param baseInstance  First quad of the chunk in the arena buffer.
+	 * @param instanceCount Number of quads to draw.
+	 */
+	public void add(int baseInstance, int instanceCount, int originX, int originY, int originZ)
+	{
+		if(commands.remaining() < INTS_PER_COMMAND)
+		{
+			int newCapacity = commands.capacity() * 2;
+			commands = MemoryUtil.memRealloc(commands, newCapacity);
+			origins = MemoryUtil.memRealloc(origins, newCapacity);
+		}
+		commands.put(4).put(instanceCount).put(0).put(baseInstance);
+		origins.put(originX).put(originY).put(originZ).put(0);
+		drawCount++;
+	}
+
+	/**
+	 * Uploads the collected draws and issues them. The arena VAO and the chunk shader must be bound.
+	 */
+	public void draw()
+	{
+		if(drawCount == 0)
+		{
+			return;
+		}
+		commands.flip();
+		origins.flip();
+
+		GL15.glBindBuffer(GL43.GL_SHADER_STORAGE_BUFFER, originBufferID);
+		GL15.glBufferData(GL43.GL_SHADER_STORAGE_BUFFER, origins, GL15.GL_STREAM_DRAW);
+		GL15.glBindBuffer(GL43.GL_SHADER_STORAGE_BUFFER, 0);
+		GL30.glBindBufferBase(GL43.GL_SHADER_STORAGE_BUFFER, CHUNK_ORIGINS_BINDING, originBufferID);
+
+		GL15.glBindBuffer(GL40.GL_DRAW_INDIRECT_BUFFER, commandBufferID);
+		GL15.glBufferData(GL40.GL_DRAW_INDIRECT_BUFFER, commands, GL15.GL_STREAM_DRAW);
+		GL43.glMultiDrawArraysIndirect(GL11.GL_TRIANGLE_STRIP, 0, drawCount, 0); // Tightly packed commands
+		GL15.glBindBuffer(GL40.GL_DRAW_INDIRECT_BUFFER, 0);
+	}
+
+	public int getDrawCount()
+	{
+		return drawCount;
+	}
+
+	public void cleanup()
+	{
+		if(commandBufferID != 0)
+		{
+			GL15.glDeleteBuffers(commandBufferID);
+			GL15.glDeleteBuffers(originBufferID);
+			MemoryUtil.memFree(commands);
+			MemoryUtil.memFree(origins);
+			commandBufferID = 0;
+			originBufferID = 0;
+			commands = null;
+			origins = null;
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.juanpa.engine.renderer;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31; // For GL_UNIFORM_BUFFER
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Per-frame camera data shared by every shader through one std140 uniform buffer.
+ * Written once per frame, then bound at {@link #BINDING} for the whole frame, so no
+ * shader uploads its own view or projection matrix anymore.
+ *
+ * Shaders declare the block like this (keep the member order in sync with the offsets below):
+ * <pre>
+ * layout (std140) uniform FrameData
+ * {
+ *     mat4 view;
+ *     mat4 projection;
+ *     mat4 viewProjection;
+ *     vec4 cameraPosition; // xyz, w unused
+ *     vec4 skyColor;       // rgb, a unused
+ *     float time;          // Seconds since startup
+ * };
+ * </pre>
+ * and are pointed at the binding with {@link ShaderProgram#bindUniformBlock(String, int)}.
+ */
+public class FrameUniforms
+{
+	public static final String BLOCK_NAME = "FrameData";
+	public static final int BINDING = 0;
+
+	// std140 offsets: mat4 is 4 vec4 columns, vec4 is 16 bytes, a trailing float rounds the block up to 16
+	private static final int VIEW_OFFSET = 0;
+	private static final int PROJECTION_OFFSET = 64;
+	private static final int VIEW_PROJECTION_OFFSET = 128;
+	private static final int CAMERA_POSITION_OFFSET = 192;
+	private static final int SKY_COLOR_OFFSET = 208;
+	private static final int TIME_OFFSET = 224;
+	private static final int SIZE = 240;
+
+	private int bufferID;
+	private final ByteBuffer data;
+
+	public FrameUniforms()
+	{
+		data = MemoryUtil.memCalloc(SIZE);
+		bufferID = GL15.glGenBuffers();
+		GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, bufferID);
+		GL15.glBufferData(GL31.GL_UNIFORM_BUFFER, SIZE, GL15.GL_DYNAMIC_DRAW);
+		GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, 0);
+		GL30.glBindBufferBase(GL31.GL_UNIFORM_BUFFER, BINDING, bufferID);
+	}
+
+	/**
+	 * Writes this frame's values and uploads the whole block in one call.
+	 */
+	public void update(Matrix4f view, Matrix4f projection, Matrix4f viewProjection, Vector3f cameraPosition, Vector3f skyColor, float time)
+	{
+		view.get(VIEW_OFFSET, data);
+		projection.get(PROJECTION_OFFSET, data);
+		viewProjection.get(VIEW_PROJECTION_OFFSET, data);
+		cameraPosition.get(CAMERA_POSITION_OFFSET, data);
+		skyColor.get(SKY_COLOR_OFFSET, data);
+		data.putFloat(TIME_OFFSET, time);
+
+		GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, bufferID);
+		GL15.glBufferSubData(GL31.GL_UNIFORM_BUFFER, 0, data);
+		GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, 0);
+		GL30.glBindBufferBase(GL31.GL_UNIFORM_BUFFER, BINDING, bufferID); // Cheap, and survives other code rebinding the slot
+	}
+
+	public void cleanup()
+	{
+		if(bufferID != 0)
+		{
+			GL15.glDeleteBuffers(bufferID);
+			MemoryUtil.memFree(data);
+			bufferID = 0;
+		}
+	}
+}
@@ -2,41 +2,61 @@
 package com.juanpa.engine.renderer;
 
 import com.juanpa.engine.Debug;
+import com.juanpa.engine.Time;
+import com.juanpa.engine.components.Camera;
 import com.juanpa.engine.world.chunk.Chunk;
 import com.juanpa.engine.world.chunk.ChunkCoord;
+import com.juanpa.engine.world.chunk.ChunkGrid;
 import com.juanpa.engine.world.chunk.ChunkMesh; // Import ChunkMesh
+import com.juanpa.engine.math.Frustum;
+import org.lwjgl.opengl.GL;
 import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL31; // For glDrawArraysInstanced
-import org.joml.Matrix4f;
+import org.lwjgl.opengl.GL42; // For glDrawArraysInstancedBaseInstance
 
-import java.util.HashMap;
-import java.util.Map;
 
 public class Renderer
 {
-	private Map<ChunkCoord, ChunkMesh> loadedChunkMeshes;
+	private ChunkGrid<ChunkMesh> loadedChunkMeshes; // Same ring buffer layout as the World's loaded chunks
 	private ShaderProgram defaultShader;
+	private FrameUniforms frameUniforms; // Camera matrices etc., uploaded once per frame for every shader
+	private ChunkBufferArena chunkBufferArena; // Instance data of every chunk mesh, in one VBO
+	private ChunkDrawCommandBuffer chunkDrawCommands; // Visible chunks of the frame, drawn with one multi-draw
+	private boolean useMultiDrawIndirect; // False falls back to one draw call per chunk
+	private int chunkOriginLocation; // Location of the ivec3 chunkOrigin uniform, set per draw in the fallback path
+
+	// Chunk culling stats of the last rendered frame
+	private int drawnChunkCount;
+	private int culledChunkCount;
 
 	public Renderer() {
-		this.loadedChunkMeshes = new HashMap<>();
+		this.loadedChunkMeshes = new ChunkGrid<>(1, 1); // Sized by the World, see ensureChunkGridSize
 		init();
 	}
 
 	public void init() {
+		frameUniforms = new FrameUniforms();
 		ChunkMesh.initBaseQuad(); // Initialize the shared base quad VBO
+		chunkBufferArena = new ChunkBufferArena(ChunkMesh.getBaseQuadVBO());
+		chunkDrawCommands = new ChunkDrawCommandBuffer();
+		// main.vert reads gl_DrawID, which is core since GL 4.6
+		useMultiDrawIndirect = GL.getCapabilities().OpenGL46;
 
 		Skybox.init(); // Assuming Skybox is separate
 		GL11.glClearColor(0.02f, 0.0f, 0.1f, 1f);
 		GL11.glEnable(GL11.GL_DEPTH_TEST);
 
 		defaultShader = new ShaderProgram("/shaders/main.vert", "/shaders/main.frag");
+		defaultShader.bindUniformBlock(FrameUniforms.BLOCK_NAME, FrameUniforms.BINDING);
+		chunkOriginLocation = defaultShader.getUniformLocation("chunkOrigin");
 		Debug.logInfo("Renderer initialized.");
 	}
 
-	public void render(Matrix4f viewMatrix, Matrix4f projectionMatrix) {
+	public void render(Camera camera) {
 		clear();
-		Skybox.render(viewMatrix, projectionMatrix); // Render skybox first (usually)
-		renderChunksInstanced(viewMatrix, projectionMatrix);
+		frameUniforms.update(camera.getViewMatrix(), camera.getProjectionMatrix(), camera.getViewProjectionMatrix(),
+				camera.getEyePosition(), Skybox.getSkyColor(), Time.time);
+		Skybox.render(); // Render skybox first (usually)
+		renderChunksInstanced(camera.getFrustum());
 	}
 
 	public void clear() {
@@ -51,6 +71,16 @@ public class Renderer
 		loadedChunkMeshes.put(coord, mesh);
 	}
 
+	// Stops drawing a chunk but leaves its mesh, and its range of the arena, alive for a later registerChunkMesh
+	public void unregisterChunkMesh(ChunkCoord coord) {
+		loadedChunkMeshes.remove(coord);
+	}
+
+	// Grows the mesh grid so the World's loaded area fits without collisions
+	public void ensureChunkGridSize(int sizeXZ, int sizeY) {
+		loadedChunkMeshes.ensureSize(sizeXZ, sizeY);
+	}
+
 	public void disposeChunkMesh(ChunkCoord coord) {
 		ChunkMesh mesh = loadedChunkMeshes.remove(coord);
 		if (mesh != null) {
@@ -58,39 +88,86 @@ public class Renderer
 		}
 	}
 
-	public void renderChunksInstanced(Matrix4f viewMatrix, Matrix4f projectionMatrix) {
+	// frustum: chunks whose bounds are completely outside it are skipped, null draws everything
+	// Camera matrices come from the FrameData uniform buffer, written in render()
+	public void renderChunksInstanced(Frustum frustum) {
 		defaultShader.use();
-		defaultShader.setUniform("viewMatrix", viewMatrix);
-		defaultShader.setUniform("projectionMatrix", projectionMatrix);
-
-		for (Map.Entry<ChunkCoord, ChunkMesh> entry : loadedChunkMeshes.entrySet()) {
-			ChunkCoord chunkCoord = entry.getKey();
-			ChunkMesh mesh = entry.getValue();
-
-			if (mesh.getInstanceCount() > 0) {
-				// Calculate model matrix for this chunk based on its world position
-				Matrix4f modelMatrix = new Matrix4f().translate(
-						chunkCoord.x * Chunk.CHUNK_SIZE,
-						chunkCoord.y * Chunk.CHUNK_SIZE,
-						chunkCoord.z * Chunk.CHUNK_SIZE
-				);
-				defaultShader.setUniform("modelMatrix", modelMatrix);
-
-				mesh.bindInstancedVAO(); // Binds the VAO configured for instancing
-
-				// Draw 4 vertices (for the base quad, using TRIANGLE_STRIP)
-				// repeated 'mesh.getInstanceCount()' times.
-				GL31.glDrawArraysInstanced(GL11.GL_TRIANGLE_STRIP, 0, 4, mesh.getInstanceCount());
-
-				mesh.unbindInstancedVAO();
-			}
+
+		drawnChunkCount = 0;
+		culledChunkCount = 0;
+		chunkBufferArena.defragmentIfNeeded();
+		chunkBufferArena.bind(); // One VAO for every chunk, meshes only differ in their base instance
+		defaultShader.setUniform("useChunkOriginBuffer", useMultiDrawIndirect ? 1 : 0);
+		chunkDrawCommands.clear();
+		loadedChunkMeshes.forEach((chunkCoord, mesh) -> renderChunk(chunkCoord, mesh, frustum));
+		if (useMultiDrawIndirect) {
+			chunkDrawCommands.draw();
 		}
+		chunkBufferArena.unbind();
 		defaultShader.unuse();
 	}
 
+	private void renderChunk(ChunkCoord chunkCoord, ChunkMesh mesh, Frustum frustum) {
+		if (mesh.getInstanceCount() == 0) {
+			return;
+		}
+		int originX = chunkCoord.x * Chunk.CHUNK_SIZE;
+		int originY = chunkCoord.y * Chunk.CHUNK_SIZE;
+		int originZ = chunkCoord.z * Chunk.CHUNK_SIZE;
+		if (frustum != null && !frustum.isBoxVisible(originX, originY, originZ,
+				originX + Chunk.CHUNK_SIZE, originY + Chunk.CHUNK_SIZE, originZ + Chunk.CHUNK_SIZE)) {
+			culledChunkCount++;
+			return;
+		}
+		drawnChunkCount++;
+
+		if (useMultiDrawIndirect) {
+			// Only recorded here, every visible chunk is drawn by the single multi-draw in renderChunksInstanced
+			chunkDrawCommands.add(mesh.getBaseInstance(), mesh.getInstanceCount(), originX, originY, originZ);
+			return;
+		}
+
+		// Chunks are only translated, by whole blocks
+		defaultShader.setUniform(chunkOriginLocation, originX, originY, originZ);
+
+		// Draw 4 vertices (for the base quad, using TRIANGLE_STRIP)
+		// repeated 'mesh.getInstanceCount()' times, reading instances from the mesh's arena range.
+		GL42.glDrawArraysInstancedBaseInstance(GL11.GL_TRIANGLE_STRIP, 0, 4, mesh.getInstanceCount(), mesh.getBaseInstance());
+	}
+
+	public ChunkBufferArena getChunkBufferArena() {
+		return chunkBufferArena;
+	}
+
+	public boolean isMultiDrawIndirectEnabled() {
+		return useMultiDrawIndirect;
+	}
+
+	// Switching off is always possible, switching on only where the context supports it
+	public void setMultiDrawIndirectEnabled(boolean enabled) {
+		useMultiDrawIndirect = enabled && GL.getCapabilities().OpenGL46;
+	}
+
+	public int getDrawnChunkCount() {
+		return drawnChunkCount;
+	}
+
+	public int getCulledChunkCount() {
+		return culledChunkCount;
+	}
+
 	// Call this from Engine's cleanup
 	public void cleanup() {
 		Debug.logInfo("Renderer cleaning up.");
+		if (frameUniforms != null) {
+			frameUniforms.cleanup();
+		}
+		if (chunkDrawCommands != null) {
+			chunkDrawCommands.cleanup();
+		}
+		if (chunkBufferArena != null) {
+			chunkBufferArena.cleanup();
+		}
 		ChunkMesh.cleanupBaseQuad(); // Cleanup shared base quad VBO
 		if (defaultShader != null) {
 			defaultShader.cleanup(); // Assuming ShaderProgram has a cleanup method
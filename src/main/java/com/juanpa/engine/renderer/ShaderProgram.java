@@ -4,6 +4,7 @@ import com.juanpa.engine.Debug;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL31;
 import org.lwjgl.system.MemoryStack;
 
 import java.io.BufferedReader;
@@ -187,7 +188,7 @@ public class ShaderProgram
 			FloatBuffer fb = stack.mallocFloat(16);
 			value.get(fb);
 			GL20.glUniformMatrix4fv(getUniformLocation(uniformName), false, fb);
-			Debug.checkGLError("setUniform: glUniformMatrix4fv ('" + uniformName + "')"); // <-- ADDED LOG
+			if(Debug.GL_ERROR_POLLING) Debug.checkGLError("setUniform: glUniformMatrix4fv ('" + uniformName + "')"); // <-- ADDED LOG
 		}
 	}
 
@@ -198,20 +199,45 @@ public class ShaderProgram
 			FloatBuffer fb = stack.mallocFloat(3);
 			value.get(fb);
 			GL20.glUniform3fv(getUniformLocation(uniformName), fb);
-			Debug.checkGLError("setUniform: glUniform3fv ('" + uniformName + "')"); // <-- ADDED LOG
+			if(Debug.GL_ERROR_POLLING) Debug.checkGLError("setUniform: glUniform3fv ('" + uniformName + "')"); // <-- ADDED LOG
 		}
 	}
 
 	public void setUniform(String uniformName, int value)
 	{
 		GL20.glUniform1i(getUniformLocation(uniformName), value);
-		Debug.checkGLError("setUniform: glUniform1i ('" + uniformName + "')"); // <-- ADDED LOG
+		if(Debug.GL_ERROR_POLLING) Debug.checkGLError("setUniform: glUniform1i ('" + uniformName + "')"); // <-- ADDED LOG
 	}
 
 	public void setUniform(String uniformName, float value)
 	{
 		GL20.glUniform1f(getUniformLocation(uniformName), value);
-		Debug.checkGLError("setUniform: glUniform1f ('" + uniformName + "')"); // <-- ADDED LOG
+		if(Debug.GL_ERROR_POLLING) Debug.checkGLError("setUniform: glUniform1f ('" + uniformName + "')"); // <-- ADDED LOG
+	}
+
+	/**
+	 * Sets an ivec3 uniform by a location from {@link #getUniformLocation(String)}.
+	 * Meant for per-draw updates: no name lookup and no error check.
+	 */
+	public void setUniform(int location, int x, int y, int z)
+	{
+		GL20.glUniform3i(location, x, y, z);
+	}
+
+	/**
+	 * Points a uniform block of this program at a uniform buffer binding point,
+	 * e.g. {@link FrameUniforms#BLOCK_NAME} at {@link FrameUniforms#BINDING}.
+	 */
+	public void bindUniformBlock(String blockName, int binding)
+	{
+		int blockIndex = GL31.glGetUniformBlockIndex(programId, blockName);
+		if(blockIndex == GL31.GL_INVALID_INDEX)
+		{
+			Debug.logWarning("Uniform block '" + blockName + "' not found in shader program " + programId);
+			return;
+		}
+		GL31.glUniformBlockBinding(programId, blockIndex, binding);
+		Debug.checkGLError("bindUniformBlock: glUniformBlockBinding ('" + blockName + "')");
 	}
 
 	// Add more uniform setting methods as needed (e.g., Vector2f, Vector4f, arrays, etc.)
@@ -222,7 +248,7 @@ public class ShaderProgram
 	public void use()
 	{
 		GL20.glUseProgram(programId);
-		Debug.checkGLError("use: glUseProgram (" + programId + ")"); // <-- ADDED LOG
+		if(Debug.GL_ERROR_POLLING) Debug.checkGLError("use: glUseProgram (" + programId + ")"); // <-- ADDED LOG
 	}
 
 	/**
@@ -231,7 +257,7 @@ public class ShaderProgram
 	public void unuse()
 	{
 		GL20.glUseProgram(0);
-		Debug.checkGLError("unuse: glUseProgram (0)"); // <-- ADDED LOG
+		if(Debug.GL_ERROR_POLLING) Debug.checkGLError("unuse: glUseProgram (0)"); // <-- ADDED LOG
 	}
 
 	/**
@@ -1,6 +1,5 @@
 package com.juanpa.engine.renderer;
 
-import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.lwjgl.opengl.GL30;
 
@@ -14,6 +13,7 @@ public class Skybox
     private static int vao = -1;
     private static int vbo = -1;
     private static ShaderProgram shader;
+    private static final Vector3f SKY_COLOR = new Vector3f(0.4f, 0.6f, 0.9f);
 
     private static final float[] CUBE_VERTICES = { -1, 1, -1, -1, -1, -1, 1, -1, -1, 1, -1, -1, 1, 1, -1, -1, 1, -1, -1, -1, 1, -1, -1, -1, -1, 1, -1, -1, 1, -1, -1, 1, 1, -1, -1, 1, 1, -1, -1, 1, -1, 1, 1, 1, 1, 1, 1, 1, 1, 1, -1, 1, -1, -1, -1, -1, 1, -1, 1, 1, 1, 1, 1, 1, 1, 1, 1, -1, 1, -1, -1, 1, -1, 1, -1, 1, 1, -1, 1, 1, 1, 1, 1, 1, -1, 1, 1, -1, 1, -1, -1, -1, -1, -1, -1, 1, 1, -1, -1, 1, -1, -1, -1, -1, 1, 1, -1, 1 };
 
@@ -32,19 +32,22 @@ public class Skybox
         glBindVertexArray(0);
 
         shader = new ShaderProgram("/shaders/skybox.vert", "/shaders/skybox.frag");
+        shader.bindUniformBlock(FrameUniforms.BLOCK_NAME, FrameUniforms.BINDING);
     }
 
-    public static void render(Matrix4f viewMatrix, Matrix4f projectionMatrix)
+    // Sky color written into the FrameData block each frame
+    public static Vector3f getSkyColor()
+    {
+        return SKY_COLOR;
+    }
+
+    // Matrices and sky color come from the FrameData uniform buffer, the vertex shader drops the view translation itself
+    public static void render()
     {
         glDepthFunc(GL_LEQUAL);
         glDepthMask(false);
 
         shader.use();
-        Matrix4f viewNoTranslation = new Matrix4f(viewMatrix);
-        viewNoTranslation.m30(0).m31(0).m32(0); // Remove translation
-        shader.setUniform("view", viewNoTranslation);
-        shader.setUniform("projection", projectionMatrix);
-        shader.setUniform("skyColor", new Vector3f(0.4f, 0.6f, 0.9f));
 
         glBindVertexArray(vao);
         glDrawArrays(GL_TRIANGLES, 0, 36);
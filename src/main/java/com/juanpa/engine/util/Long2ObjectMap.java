@@ -0,0 +1,239 @@
+package com.juanpa.engine.util;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from primitive long keys to objects, with open addressing and linear probing.
+ * Lookups neither box the key nor allocate, which matters for per-block queries keyed by packed coordinates
+ * (see {@link com.juanpa.engine.world.chunk.ChunkCoord#pack(int, int, int)}).
+ *
+ * Null values are not allowed, an empty slot is a null value. Removal shifts the following entries
+ * of the probe run back instead of leaving tombstones, so lookups never slow down over time.
+ *
+ * Entries can be walked without an iterator object:
+ * <pre>
+ * for(int i = map.nextIndex(0); i >= 0; i = map.nextIndex(i + 1))
+ * {
+ *     long key = map.keyAt(i);
+ *     V value = map.valueAt(i);
+ * }
+ * </pre>
+ * The map must not be modified during such a walk.
+ *
+ * Not thread safe.
+ */
+public class Long2ObjectMap<V>
+{
+	private static final float MAX_LOAD_FACTOR = 0.5f; // Linear probing degrades fast above this
+
+	private long[] keys;
+	private Object[] values;
+	private int mask;
+	private int size;
+	private int resizeThreshold;
+
+	public Long2ObjectMap()
+	{
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize Entries the map should hold without growing.
+	 */
+	public Long2ObjectMap(int expectedSize)
+	{
+		allocate(tableSizeFor(expectedSize));
+	}
+
+	public V get(long key)
+	{
+		int i = indexOf(key);
+		return i < 0 ? null : valueAt(i);
+	}
+
+	public boolean containsKey(long key)
+	{
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * @param value Must not be null.
+	 * @return The value previously stored for the key, or null.
+	 */
+	public V put(long key, V value)
+	{
+		if(value == null)
+		{
+			throw new IllegalArgumentException("Long2ObjectMap does not store null values");
+		}
+		int i = hash(key) & mask;
+		while(values[i] != null)
+		{
+			if(keys[i] == key)
+			{
+				V previous = valueAt(i);
+				values[i] = value;
+				return previous;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		if(++size > resizeThreshold)
+		{
+			rehash(keys.length * 2);
+		}
+		return null;
+	}
+
+	/**
+	 * @return The removed value, or null if the key wasn't present.
+	 */
+	public V remove(long key)
+	{
+		int i = indexOf(key);
+		if(i < 0)
+		{
+			return null;
+		}
+		V removed = valueAt(i);
+		removeAt(i);
+		return removed;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	public void clear()
+	{
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	/**
+	 * @return The first occupied slot at or after the given one, or -1 if there is none.
+	 */
+	public int nextIndex(int from)
+	{
+		for(int i = from; i < values.length; i++)
+		{
+			if(values[i] != null)
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public long keyAt(int index)
+	{
+		return keys[index];
+	}
+
+	@SuppressWarnings("unchecked")
+	public V valueAt(int index)
+	{
+		return (V) values[index];
+	}
+
+	private int indexOf(long key)
+	{
+		int i = hash(key) & mask;
+		while(values[i] != null)
+		{
+			if(keys[i] == key)
+			{
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Empties a slot and moves back every later entry of the probe run that would otherwise
+	 * become unreachable through the new gap.
+	 */
+	private void removeAt(int gap)
+	{
+		size--;
+		int i = gap;
+		while(true)
+		{
+			i = (i + 1) & mask;
+			if(values[i] == null)
+			{
+				break;
+			}
+			int home = hash(keys[i]) & mask;
+			// The entry can move into the gap unless its home slot lies cyclically in (gap, i]
+			boolean homeAfterGap = gap <= i ? (home > gap && home <= i) : (home > gap || home <= i);
+			if(!homeAfterGap)
+			{
+				keys[gap] = keys[i];
+				values[gap] = values[i];
+				gap = i;
+			}
+		}
+		values[gap] = null;
+	}
+
+	private void rehash(int newCapacity)
+	{
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(newCapacity);
+		for(int i = 0; i < oldValues.length; i++)
+		{
+			if(oldValues[i] != null)
+			{
+				int j = hash(oldKeys[i]) & mask;
+				while(values[j] != null)
+				{
+					j = (j + 1) & mask;
+				}
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity)
+	{
+		keys = new long[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		resizeThreshold = (int) (capacity * MAX_LOAD_FACTOR);
+	}
+
+	private static int tableSizeFor(int expectedSize)
+	{
+		int capacity = 16;
+		while(capacity * MAX_LOAD_FACTOR < expectedSize)
+		{
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	/**
+	 * Packed coordinates differ mostly in a few low bits per axis, so the key is mixed
+	 * (the MurmurHash3 finalizer) before its low bits pick a slot.
+	 */
+	private static int hash(long key)
+	{
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+}
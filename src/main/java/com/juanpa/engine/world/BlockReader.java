@@ -0,0 +1,74 @@
+package com.juanpa.engine.world;
+
+import com.juanpa.engine.world.chunk.Chunk;
+
+/**
+ * Reads blocks from a World, remembering the chunk of the previous query.
+ * Physics and raycasts query runs of neighbouring blocks, which mostly fall in the same chunk,
+ * so most queries skip the chunk lookup entirely. The remembered chunk is dropped as soon as
+ * the World loads or unloads any chunk.
+ *
+ * Each caller keeps its own reader. Main thread only, like the World's chunk maps.
+ */
+public class BlockReader
+{
+	private final World world;
+	private Chunk chunk; // Chunk of the previous query, null if it wasn't loaded
+	private int chunkX;
+	private int chunkY;
+	private int chunkZ;
+	private int chunkMapVersion;
+	private boolean hasChunk; // False until the first query
+
+	public BlockReader(World world)
+	{
+		this.world = world;
+	}
+
+	/**
+	 * Block at the given world coordinates, air if its chunk isn't loaded.
+	 */
+	public short getBlock(int x, int y, int z)
+	{
+		Chunk chunk = getChunkOfBlock(x, y, z);
+		if(chunk == null)
+		{
+			return World.BLOCK_TYPE_AIR_ID;
+		}
+		return chunk.getBlock(x & Chunk.CHUNK_MASK, y & Chunk.CHUNK_MASK, z & Chunk.CHUNK_MASK);
+	}
+
+	/**
+	 * The loaded chunk containing the given world block, or null. Lets callers such as raycasts
+	 * look at the whole chunk, e.g. to skip it when it is uniform.
+	 */
+	public Chunk getChunkOfBlock(int x, int y, int z)
+	{
+		int cx = x >> Chunk.CHUNK_SHIFT;
+		int cy = y >> Chunk.CHUNK_SHIFT;
+		int cz = z >> Chunk.CHUNK_SHIFT;
+		if(!hasChunk || cx != chunkX || cy != chunkY || cz != chunkZ || chunkMapVersion != world.getChunkMapVersion())
+		{
+			chunk = world.getChunk(cx, cy, cz);
+			chunkX = cx;
+			chunkY = cy;
+			chunkZ = cz;
+			chunkMapVersion = world.getChunkMapVersion();
+			hasChunk = true;
+		}
+		return chunk;
+	}
+
+	/**
+	 * True for any block that isn't air.
+	 */
+	public boolean isSolid(int x, int y, int z)
+	{
+		return getBlock(x, y, z) != World.BLOCK_TYPE_AIR_ID;
+	}
+
+	public World getWorld()
+	{
+		return world;
+	}
+}
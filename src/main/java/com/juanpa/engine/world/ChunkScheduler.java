@@ -0,0 +1,259 @@
+package com.juanpa.engine.world;
+
+import com.juanpa.engine.math.Frustum;
+import com.juanpa.engine.world.chunk.Chunk;
+import com.juanpa.engine.world.chunk.ChunkCoord;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pending chunk generation requests, ordered by priority.
+ * A hash index maps each scheduled coordinate to its heap entry, so membership tests,
+ * removal and re-prioritising a single chunk don't scan anything. The heap is an array-backed
+ * binary min-heap where every entry knows its own slot.
+ *
+ * The priority is the squared XZ distance (in chunks) to a focus point, smaller loads first.
+ * The World puts the focus where the player is predicted to be soon, and chunks outside the
+ * camera frustum count as further away than they are, so visible terrain ahead fills in first.
+ * Focus and view change every frame, so {@link #refresh(int)} re-keys a rolling slice of
+ * entries per frame; {@link #rebuild()} re-keys everything at once (O(n) heap construction).
+ *
+ * Main thread only.
+ */
+public class ChunkScheduler
+{
+	private final Map<ChunkCoord, Entry> index = new HashMap<>();
+	private Entry[] heap = new Entry[256];
+	private int size;
+
+	// Chunks outside the frustum are treated as this many times further away (squared distance factor)
+	private static final double OUT_OF_VIEW_FACTOR = 4.0;
+	// Squared chunk distance around the focus that always loads by distance alone, e.g. the chunks below the player
+	private static final double NEAR_DISTANCE_SQ = 2.0 * 2.0;
+
+	private double focusX; // In chunks, fractional
+	private double focusZ;
+	private Frustum frustum; // May be null, then nothing is penalised
+	private int refreshCursor; // Next heap slot refresh() re-keys
+
+	/**
+	 * Schedules a chunk. Does nothing if it is already scheduled.
+	 *
+	 * @return true if the chunk was added.
+	 */
+	public boolean add(ChunkCoord coord)
+	{
+		if(index.containsKey(coord))
+		{
+			return false;
+		}
+		if(size == heap.length)
+		{
+			heap = Arrays.copyOf(heap, size * 2);
+		}
+		Entry entry = new Entry(coord, priorityOf(coord));
+		index.put(coord, entry);
+		entry.heapIndex = size;
+		heap[size++] = entry;
+		siftUp(entry.heapIndex);
+		return true;
+	}
+
+	/**
+	 * Unschedules a chunk.
+	 *
+	 * @return true if the chunk was scheduled.
+	 */
+	public boolean remove(ChunkCoord coord)
+	{
+		Entry entry = index.remove(coord);
+		if(entry == null)
+		{
+			return false;
+		}
+		removeAt(entry.heapIndex);
+		return true;
+	}
+
+	public boolean contains(ChunkCoord coord)
+	{
+		return index.containsKey(coord);
+	}
+
+	/**
+	 * Removes and returns the chunk with the smallest priority, or null if nothing is scheduled.
+	 */
+	public ChunkCoord poll()
+	{
+		if(size == 0)
+		{
+			return null;
+		}
+		Entry first = heap[0];
+		index.remove(first.coord);
+		removeAt(0);
+		return first.coord;
+	}
+
+	/**
+	 * Sets what priorities are measured against. Entries are not re-keyed here, see {@link #refresh(int)} and {@link #rebuild()}.
+	 *
+	 * @param focusChunkX Focus X in chunk units, fractional.
+	 * @param focusChunkZ Focus Z in chunk units, fractional.
+	 * @param frustum     View frustum to prefer visible chunks with, or null.
+	 */
+	public void setFocus(double focusChunkX, double focusChunkZ, Frustum frustum)
+	{
+		this.focusX = focusChunkX;
+		this.focusZ = focusChunkZ;
+		this.frustum = frustum;
+	}
+
+	/**
+	 * Re-keys every scheduled chunk and rebuilds the heap.
+	 */
+	public void rebuild()
+	{
+		for(int i = 0; i < size; i++)
+		{
+			heap[i].priority = priorityOf(heap[i].coord);
+		}
+		// Floyd's heap construction, cheaper than re-inserting every entry
+		for(int i = (size >>> 1) - 1; i >= 0; i--)
+		{
+			siftDown(i);
+		}
+		refreshCursor = 0;
+	}
+
+	/**
+	 * Re-keys up to the given number of entries, continuing where the previous call stopped,
+	 * so the whole heap is refreshed every size / maxEntries calls at O(maxEntries * log n) each.
+	 * Entries moved by the sifts may be visited twice or skipped in a pass, which only delays them to the next one.
+	 */
+	public void refresh(int maxEntries)
+	{
+		int count = Math.min(maxEntries, size);
+		for(int i = 0; i < count; i++)
+		{
+			if(refreshCursor >= size)
+			{
+				refreshCursor = 0;
+			}
+			Entry entry = heap[refreshCursor++];
+			double oldPriority = entry.priority;
+			entry.priority = priorityOf(entry.coord);
+			if(entry.priority < oldPriority)
+			{
+				siftUp(entry.heapIndex);
+			}
+			else if(entry.priority > oldPriority)
+			{
+				siftDown(entry.heapIndex);
+			}
+		}
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public void clear()
+	{
+		index.clear();
+		Arrays.fill(heap, 0, size, null);
+		size = 0;
+		refreshCursor = 0;
+	}
+
+	private double priorityOf(ChunkCoord coord)
+	{
+		double dx = coord.x + 0.5 - focusX; // From the chunk's center
+		double dz = coord.z + 0.5 - focusZ;
+		double distanceSq = dx * dx + dz * dz;
+		if(frustum != null && distanceSq > NEAR_DISTANCE_SQ)
+		{
+			float minX = coord.x * Chunk.CHUNK_SIZE;
+			float minY = coord.y * Chunk.CHUNK_SIZE;
+			float minZ = coord.z * Chunk.CHUNK_SIZE;
+			if(!frustum.isBoxVisible(minX, minY, minZ, minX + Chunk.CHUNK_SIZE, minY + Chunk.CHUNK_SIZE, minZ + Chunk.CHUNK_SIZE))
+			{
+				distanceSq *= OUT_OF_VIEW_FACTOR;
+			}
+		}
+		return distanceSq;
+	}
+
+	private void removeAt(int i)
+	{
+		size--;
+		Entry last = heap[size];
+		heap[size] = null;
+		if(i == size)
+		{
+			return;
+		}
+		heap[i] = last;
+		last.heapIndex = i;
+		siftDown(i);
+		siftUp(last.heapIndex);
+	}
+
+	private void siftUp(int i)
+	{
+		Entry entry = heap[i];
+		while(i > 0)
+		{
+			int parent = (i - 1) >>> 1;
+			if(heap[parent].priority <= entry.priority)
+			{
+				break;
+			}
+			heap[i] = heap[parent];
+			heap[i].heapIndex = i;
+			i = parent;
+		}
+		heap[i] = entry;
+		entry.heapIndex = i;
+	}
+
+	private void siftDown(int i)
+	{
+		Entry entry = heap[i];
+		int half = size >>> 1;
+		while(i < half)
+		{
+			int child = 2 * i + 1;
+			int right = child + 1;
+			if(right < size && heap[right].priority < heap[child].priority)
+			{
+				child = right;
+			}
+			if(entry.priority <= heap[child].priority)
+			{
+				break;
+			}
+			heap[i] = heap[child];
+			heap[i].heapIndex = i;
+			i = child;
+		}
+		heap[i] = entry;
+		entry.heapIndex = i;
+	}
+
+	private static class Entry
+	{
+		final ChunkCoord coord;
+		double priority;
+		int heapIndex;
+
+		Entry(ChunkCoord coord, double priority)
+		{
+			this.coord = coord;
+			this.priority = priority;
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package com.juanpa.engine.world;
+
+import java.util.Arrays;
+
+/**
+ * Time budget for the chunk work the main thread does each frame (uploads, unloads, remesh submits).
+ * Every task type keeps a moving average of what one item costs in nanoseconds, and an item is only
+ * admitted while the frame's spent time plus that estimate fits in the budget. The first item of each
+ * type is always admitted, so no queue starves when a single item costs more than the whole budget.
+ *
+ * Usage per frame: {@link #beginFrame()}, then for each item {@link #canAfford(Task)},
+ * {@link #start()}, do the work, {@link #record(Task, long)}.
+ *
+ * Main thread only.
+ */
+public class FrameBudget
+{
+	public enum Task
+	{
+		FORCE_UPDATE, // Capture borders and submit a remesh of a modified chunk
+		UNLOAD,       // Remove a chunk and free its arena range
+		UPLOAD        // Upload a finished mesh into the arena
+	}
+
+	public static final long DEFAULT_BUDGET_NANOS = 2_000_000L; // 2 ms
+
+	private static final double COST_SMOOTHING = 0.1; // Weight of the newest item in the cost average
+	private static final double THROUGHPUT_SMOOTHING = 0.05; // Weight of the newest frame in the throughput average
+	private static final int TASK_COUNT = Task.values().length;
+
+	private long budgetNanos;
+	private long spentNanos;
+	private long previousFrameStartNanos;
+
+	private final double[] averageCostNanos = new double[TASK_COUNT];
+	private final int[] completedThisFrame = new int[TASK_COUNT];
+	private final double[] throughputPerSecond = new double[TASK_COUNT];
+
+	public FrameBudget(long budgetNanos)
+	{
+		this.budgetNanos = budgetNanos;
+	}
+
+	public void beginFrame()
+	{
+		long now = System.nanoTime();
+		if(previousFrameStartNanos != 0)
+		{
+			// Fold the frame that just ended into the throughput averages
+			double frameSeconds = (now - previousFrameStartNanos) / 1e9;
+			if(frameSeconds > 0)
+			{
+				for(int i = 0; i < TASK_COUNT; i++)
+				{
+					double rate = completedThisFrame[i] / frameSeconds;
+					throughputPerSecond[i] += (rate - throughputPerSecond[i]) * THROUGHPUT_SMOOTHING;
+				}
+			}
+		}
+		previousFrameStartNanos = now;
+		spentNanos = 0;
+		Arrays.fill(completedThisFrame, 0);
+	}
+
+	/**
+	 * True if one more item of the given type is expected to fit in what is left of the budget.
+	 */
+	public boolean canAfford(Task task)
+	{
+		int i = task.ordinal();
+		return completedThisFrame[i] == 0 || spentNanos + (long) averageCostNanos[i] <= budgetNanos;
+	}
+
+	public long start()
+	{
+		return System.nanoTime();
+	}
+
+	/**
+	 * Charges one finished item to the budget and updates its type's cost estimate.
+	 *
+	 * @param startNanos The value {@link #start()} returned before the work.
+	 */
+	public void record(Task task, long startNanos)
+	{
+		long cost = System.nanoTime() - startNanos;
+		int i = task.ordinal();
+		spentNanos += cost;
+		averageCostNanos[i] = averageCostNanos[i] == 0 ? cost : averageCostNanos[i] + (cost - averageCostNanos[i]) * COST_SMOOTHING;
+		completedThisFrame[i]++;
+	}
+
+	public long getBudgetNanos()
+	{
+		return budgetNanos;
+	}
+
+	public void setBudgetNanos(long budgetNanos)
+	{
+		this.budgetNanos = budgetNanos;
+	}
+
+	/**
+	 * @return Time charged so far this frame.
+	 */
+	public long getSpentNanos()
+	{
+		return spentNanos;
+	}
+
+	public double getAverageCostNanos(Task task)
+	{
+		return averageCostNanos[task.ordinal()];
+	}
+
+	/**
+	 * @return Smoothed number of items of this type completed per second.
+	 */
+	public double getThroughputPerSecond(Task task)
+	{
+		return throughputPerSecond[task.ordinal()];
+	}
+}
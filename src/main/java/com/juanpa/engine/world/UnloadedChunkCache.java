@@ -0,0 +1,145 @@
+package com.juanpa.engine.world;
+
+import com.juanpa.engine.world.chunk.Chunk;
+import com.juanpa.engine.world.chunk.ChunkCoord;
+import com.juanpa.engine.world.chunk.ChunkMesh;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Recently unloaded chunks, kept whole so a player walking back restores them without generating or meshing again.
+ * A cached chunk keeps its block data and its mesh's range of the arena buffer, it is just not drawn.
+ *
+ * Least recently used first: the World evicts from the front with {@link #pollEldest()} while
+ * {@link #isOverCeiling()}, counting block data and mesh quads against the ceiling.
+ *
+ * Main thread only.
+ */
+public class UnloadedChunkCache
+{
+	public static final long DEFAULT_CEILING_BYTES = 128L * 1024 * 1024;
+	// Chunk, mesh and map entry objects, so uniform chunks without block arrays still count
+	private static final long ENTRY_OVERHEAD_BYTES = 512;
+
+	private final LinkedHashMap<ChunkCoord, Entry> entries = new LinkedHashMap<>(64, 0.75f, true); // Access order
+	private long ceilingBytes;
+	private long usedBytes;
+
+	public UnloadedChunkCache(long ceilingBytes)
+	{
+		this.ceilingBytes = ceilingBytes;
+	}
+
+	/**
+	 * Caches an unloaded chunk. Its block data and mesh must not change while it is cached.
+	 *
+	 * @return The chunk previously cached at the same coordinate, for the caller to dispose, or null.
+	 */
+	public Chunk put(Chunk chunk)
+	{
+		Entry entry = new Entry(chunk, memoryBytesOf(chunk));
+		Entry previous = entries.put(chunk.getCoord(), entry);
+		usedBytes += entry.bytes;
+		if(previous == null)
+		{
+			return null;
+		}
+		usedBytes -= previous.bytes;
+		return previous.chunk;
+	}
+
+	/**
+	 * Takes a chunk out of the cache to load it again.
+	 *
+	 * @return The cached chunk, or null if it isn't cached.
+	 */
+	public Chunk remove(ChunkCoord coord)
+	{
+		Entry entry = entries.remove(coord);
+		if(entry == null)
+		{
+			return null;
+		}
+		usedBytes -= entry.bytes;
+		return entry.chunk;
+	}
+
+	/**
+	 * @return The cached chunk, or null. Counts as a use for the eviction order.
+	 */
+	public Chunk get(ChunkCoord coord)
+	{
+		Entry entry = entries.get(coord);
+		return entry == null ? null : entry.chunk;
+	}
+
+	public boolean isOverCeiling()
+	{
+		return usedBytes > ceilingBytes;
+	}
+
+	/**
+	 * Removes and returns the least recently used chunk, or null if the cache is empty. The caller disposes it.
+	 */
+	public Chunk pollEldest()
+	{
+		Iterator<Entry> iterator = entries.values().iterator();
+		if(!iterator.hasNext())
+		{
+			return null;
+		}
+		Entry eldest = iterator.next();
+		iterator.remove();
+		usedBytes -= eldest.bytes;
+		return eldest.chunk;
+	}
+
+	public int size()
+	{
+		return entries.size();
+	}
+
+	public long getUsedBytes()
+	{
+		return usedBytes;
+	}
+
+	public long getCeilingBytes()
+	{
+		return ceilingBytes;
+	}
+
+	/**
+	 * Changes the ceiling. Nothing is evicted here, the World trims the cache on its next unload.
+	 */
+	public void setCeilingBytes(long ceilingBytes)
+	{
+		this.ceilingBytes = ceilingBytes;
+	}
+
+	/**
+	 * Block data and occupancy on the heap plus mesh quads in the arena buffer.
+	 */
+	private static long memoryBytesOf(Chunk chunk)
+	{
+		long bytes = ENTRY_OVERHEAD_BYTES + chunk.getBlockStorage().getMemoryBytes() + chunk.getOccupancy().getMemoryBytes();
+		if(!chunk.isUniformAir())
+		{
+			bytes += (long) chunk.getMesh().getInstanceCount() * ChunkMesh.BYTES_PER_QUAD;
+		}
+		return bytes;
+	}
+
+	private static class Entry
+	{
+		final Chunk chunk;
+		final long bytes;
+
+		Entry(Chunk chunk, long bytes)
+		{
+			this.chunk = chunk;
+			this.bytes = bytes;
+		}
+	}
+}
@@ -2,29 +2,31 @@
 package com.juanpa.engine.world;
 
 import com.juanpa.engine.Debug;
+import com.juanpa.engine.Time;
 import com.juanpa.engine.components.Camera;
 import com.juanpa.engine.renderer.Renderer;
+import com.juanpa.engine.util.Long2ObjectMap;
 import com.juanpa.engine.world.chunk.Chunk;
+import com.juanpa.engine.world.chunk.ChunkBorders;
 import com.juanpa.engine.world.chunk.ChunkCoord;
-import com.juanpa.engine.world.chunk.ChunkMesh; // Needed for QuadInstanceData
+import com.juanpa.engine.world.chunk.ChunkGrid;
+import com.juanpa.engine.world.chunk.ChunkMesh;
+import com.juanpa.engine.world.chunk.ChunkState;
 import com.juanpa.engine.world.chunk.InstancedChunkMeshJobResult;
+import com.juanpa.engine.world.chunk.MeshBufferPool;
+import com.juanpa.engine.world.generation.ColumnCache;
 import com.juanpa.game.Game; // Import Game to access renderDistanceChunks
 import org.joml.Vector3f;
 import org.joml.Vector3i;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.nio.ByteBuffer;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.LinkedHashSet;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.List;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 
 public class World
 {
@@ -48,20 +50,44 @@ public class World
 
 	// --- Fields ---
 	private long seed;
-	private Map<ChunkCoord, Chunk> loadedChunks;
+	private ChunkGrid<Chunk> loadedChunks; // Ring buffer grid around the player, see ensureChunkGridSize
+	private int chunkMapVersion; // Bumped whenever loadedChunks changes, so BlockReaders know their cached chunk is stale
+	private ColumnCache columnCache; // Surface heightmaps shared by all chunks of an XZ column
+	private MeshBufferPool meshBufferPool; // Off-heap buffers mesh jobs write into, recycled after upload
+	private UnloadedChunkCache unloadedChunkCache; // Recently unloaded chunks with their meshes, restored when revisited
 	private Renderer renderer;
 
 	private Vector3f playerPosition;
-	private ChunkCoord lastPlayerChunkCoord; // This will now typically only store XZ, or just be updated to reflect current player's XZ chunk
-
-	private Queue<ChunkCoord> chunksToUnloadQueue;
+	private Vector3f previousPlayerPosition; // Player position at the previous update, for the velocity estimate
+	private Vector3f playerVelocity; // Smoothed, in blocks per second
+	private boolean hasPreviousPlayerPosition;
+	private ChunkCoord lastPlayerChunkCoord; // Center of the requested render circle, only its XZ is used
+	private int requestedRadius = -1; // Radius of the requested render circle, -1 before the first request
+	private int keptRadius = -1; // Radius loaded chunks are kept within, requestedRadius plus the hysteresis band
+	private int lowestLoadedChunkY = WORLD_MIN_CHUNK_Y; // Y range any chunk was ever loaded in, setBlock can
+	private int highestLoadedChunkY = WORLD_MAX_CHUNK_Y; // force load chunks outside the terrain range
+
+	// Main thread only. Sets double as their own duplicate checks, in insertion order.
+	private Set<ChunkCoord> chunksToUnload;
+	private Set<ChunkCoord> chunksOutsideKeptCircle; // Loaded by setBlock outside the kept circle, which ring deltas never reach
+	private Set<ChunkCoord> chunksToForceUpdate;
+	private ChunkScheduler chunksToGenerate; // Pending generation requests, nearest first
 	private Queue<InstancedChunkMeshJobResult> chunksToUploadQueue;
-	private Queue<ChunkCoord> chunksToForceUpdateQueue;
-	private Queue<ChunkCoord> chunksToGenerateQueue; // Moved here for logical grouping
+	private Queue<Chunk> chunksGeneratedQueue; // Filled by worker threads once block data is ready
+	private Long2ObjectMap<Chunk> generatingChunks; // Main thread only: chunks whose block data is still being generated, by packed coord
 
 	private ExecutorService chunkGenerationThreadPool;
-	private static final int CHUNKS_PER_FRAME_PROCESS_LIMIT = 2;
-	private static final int CHUNKS_PER_FRAME_GENERATE_LIMIT = 2;
+	private FrameBudget frameBudget; // Main thread time per frame for uploads, unloads and remesh submits
+	private int maxGeneratingChunks; // Generation jobs in flight, enough to keep every worker busy
+	private static final int GENERATING_CHUNKS_PER_THREAD = 2;
+	// Columns load within the render distance but only unload this many chunks beyond it,
+	// so walking back and forth over a chunk border doesn't unload and reload the same columns
+	private static final int UNLOAD_HYSTERESIS_CHUNKS = 2;
+
+	// Load order: chunks are prioritised around where the player will be this far ahead, if they keep moving
+	private static final float LOAD_LOOKAHEAD_SECONDS = 2.0f;
+	private static final float VELOCITY_SMOOTHING = 0.1f; // Weight of the newest frame in the velocity average
+	private static final int PRIORITY_REFRESH_PER_FRAME = 256; // Scheduled chunks re-keyed per frame as the view turns
 
 	// ----------------------//
 	// ---- Constructor ----//
@@ -70,22 +96,32 @@ public class World
 	{
 		this.seed = generationSeed;
 		this.renderer = renderer;
-		this.loadedChunks = new HashMap<>();
+		this.loadedChunks = new ChunkGrid<>(1, 1); // Sized by updateChunkQueues
+		this.generatingChunks = new Long2ObjectMap<>();
+		this.columnCache = new ColumnCache(seed, Chunk.MIN_SURFACE_HEIGHT);
+		this.meshBufferPool = new MeshBufferPool();
+		this.unloadedChunkCache = new UnloadedChunkCache(UnloadedChunkCache.DEFAULT_CEILING_BYTES);
 
 		this.playerPosition = new Vector3f(0.0f, 0.0f, 0.0f);
+		this.previousPlayerPosition = new Vector3f();
+		this.playerVelocity = new Vector3f();
 		// For lastPlayerChunkCoord, only consider XZ for movement updates, but store the full Y
 		// so that it reflects the actual chunk the player is in.
 		this.lastPlayerChunkCoord = getChunkCoordinatesForBlock(playerPosition);
 
 
-		this.chunksToUnloadQueue = new ConcurrentLinkedQueue<>();
-		this.chunksToGenerateQueue = new ConcurrentLinkedQueue<>();
+		this.chunksToUnload = new LinkedHashSet<>();
+		this.chunksOutsideKeptCircle = new LinkedHashSet<>();
+		this.chunksToGenerate = new ChunkScheduler();
 		this.chunksToUploadQueue = new ConcurrentLinkedQueue<>();
-		this.chunksToForceUpdateQueue = new ConcurrentLinkedQueue<>();
+		this.chunksToForceUpdate = new LinkedHashSet<>();
+		this.chunksGeneratedQueue = new ConcurrentLinkedQueue<>();
 
 		int numThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
 		chunkGenerationThreadPool = Executors.newFixedThreadPool(numThreads);
 		Debug.logInfo("Initialized chunk generation thread pool with " + numThreads + " threads.");
+		this.maxGeneratingChunks = numThreads * GENERATING_CHUNKS_PER_THREAD;
+		this.frameBudget = new FrameBudget(FrameBudget.DEFAULT_BUDGET_NANOS);
 
 		init();
 		Debug.logInfo("World initialized with seed [" + seed + "]");
@@ -97,70 +133,8 @@ public class World
 
 	public void init()
 	{
-		enqueueInitialChunks();
-	}
-
-	private void enqueueInitialChunks()
-	{
-		// Use Game.renderDistanceChunks which is calculated based on radial distance
-		int renderDistance = Game.renderDistance;
-		ChunkCoord playerChunkCoords = getChunkCoordinatesForBlock(playerPosition);
-
-		List<ChunkCoord> potentialChunksToGenerate = new ArrayList<>();
-
-		// Iterate over a slightly larger square bounding box to find all chunks within radial distance
-		// Adding 2 to renderDistance to ensure we cover all corners when CHUNK_SIZE is large
-		// This range is for X and Z
-		for(int x = -renderDistance - 2; x <= renderDistance + 2; x++)
-		{
-			for(int z = -renderDistance - 2; z <= renderDistance + 2; z++)
-			{
-				// Calculate the 2D (XZ) squared distance from the player's XZ chunk
-				double dx = (double) x;
-				double dz = (double) z;
-				double distSqXZ = dx * dx + dz * dz;
-
-				// Square of the render distance to avoid sqrt calculation, which is faster
-				if(distSqXZ > (renderDistance * renderDistance))
-				{
-					continue; // Skip if outside radial XZ distance
-				}
-				// -----------------------------------------
-
-				// Loop through all relevant Y-levels for terrain
-				// Y-level is independent of the XZ radial check
-				for(int y = WORLD_MIN_CHUNK_Y; y <= WORLD_MAX_CHUNK_Y; y++)
-				{
-					ChunkCoord targetChunkCoord = new ChunkCoord(playerChunkCoords.x + x, y,
-							playerChunkCoords.z + z);
-
-
-					// Load/Generate chunk only if it's not already loaded and not already in a queue
-					if(!loadedChunks.containsKey(targetChunkCoord) &&
-							!chunksToGenerateQueue.contains(targetChunkCoord) &&
-							!chunksToUploadQueue.stream().anyMatch(res -> res.coord.equals(targetChunkCoord)) &&
-							!chunksToForceUpdateQueue.contains(targetChunkCoord))
-					{
-						potentialChunksToGenerate.add(targetChunkCoord);
-					}
-				}
-			}
-		}
-
-		// Sort chunks by XZ distance from the player chunk (Euclidean distance for better radial prioritization)
-		// The Y-coordinate in the sort comparator for distanceSqXZ will be ignored implicitly
-		// because distanceSqXZ only calculates based on x and z.
-		potentialChunksToGenerate.sort(Comparator.comparingDouble(coord -> {
-			long dx = (long) coord.x - playerChunkCoords.x;
-			long dz = (long) coord.z - playerChunkCoords.z;
-			return (double) (dx * dx + dz * dz);
-		}));
-
-		for(ChunkCoord coord : potentialChunksToGenerate)
-		{
-			chunksToGenerateQueue.add(coord);
-		}
-		Debug.logInfo("Enqueued " + potentialChunksToGenerate.size() + " initial chunks for radial XZ generation.");
+		updateChunkQueues(); // Nothing is requested yet, so this requests the whole circle
+		Debug.logInfo("Enqueued " + chunksToGenerate.size() + " initial chunks for radial XZ generation.");
 	}
 
 	public void update()
@@ -173,6 +147,7 @@ public class World
 		}
 
 		ChunkCoord currentPlayerChunk = getChunkCoordinatesForBlock(playerPosition);
+		updateLoadFocus(activeCamera);
 
 		// Only update chunk queues if player has moved to a new XZ chunk
 		// We create a temporary ChunkCoord for comparison that ignores Y,
@@ -180,8 +155,12 @@ public class World
 		// with lastPlayerChunkCoord.x and lastPlayerChunkCoord.z
 		if(currentPlayerChunk.x != lastPlayerChunkCoord.x || currentPlayerChunk.z != lastPlayerChunkCoord.z)
 		{
-			updateChunkQueues();
-			lastPlayerChunkCoord = currentPlayerChunk; // Update lastPlayerChunkCoord with the new XZ
+			updateChunkQueues(); // Also moves lastPlayerChunkCoord to the new XZ
+			chunksToGenerate.rebuild();
+		}
+		else
+		{
+			chunksToGenerate.refresh(PRIORITY_REFRESH_PER_FRAME); // The view turns and the prediction moves every frame
 		}
 
 		processChunkQueuesAsync();
@@ -191,10 +170,10 @@ public class World
 	{
 		Debug.logInfo("Disposing world: unloading all chunks and shutting down thread pool.");
 
-		chunksToUnloadQueue.clear();
-		chunksToGenerateQueue.clear();
-		chunksToUploadQueue.clear();
-		chunksToForceUpdateQueue.clear();
+		chunksToUnload.clear();
+		chunksOutsideKeptCircle.clear();
+		chunksToGenerate.clear();
+		chunksToForceUpdate.clear();
 
 		chunkGenerationThreadPool.shutdown();
 		try
@@ -211,181 +190,498 @@ public class World
 			chunkGenerationThreadPool.shutdownNow();
 		}
 
-		Set<ChunkCoord> coordsToDispose = new HashSet<>(loadedChunks.keySet());
+		// Drop chunks that were still being generated
+		for(int i = generatingChunks.nextIndex(0); i >= 0; i = generatingChunks.nextIndex(i + 1))
+		{
+			generatingChunks.valueAt(i).dispose();
+		}
+		generatingChunks.clear();
+		chunksGeneratedQueue.clear();
+
+		// Mesh results still own their buffers, so they are released once no worker can add more
+		InstancedChunkMeshJobResult pendingResult;
+		while((pendingResult = chunksToUploadQueue.poll()) != null)
+		{
+			meshBufferPool.release(pendingResult.instanceData);
+		}
+		meshBufferPool.dispose();
 
-		for(ChunkCoord coord : coordsToDispose)
+		Chunk cachedChunk;
+		while((cachedChunk = unloadedChunkCache.pollEldest()) != null)
 		{
-			Chunk chunk = loadedChunks.remove(coord);
-			if(chunk != null)
-			{
-				this.renderer.disposeChunkMesh(coord);
-				chunk.dispose();
-			}
+			cachedChunk.dispose(); // Frees its range of the arena
 		}
+
+		loadedChunks.forEach((coord, chunk) ->
+		{
+			this.renderer.disposeChunkMesh(coord);
+			chunk.dispose();
+		});
 		loadedChunks.clear();
+		chunkMapVersion++;
+		columnCache.clear();
 	}
 
 	// -----------------------------------//
 	// ---- Chunk Management Methods ----//
 	// -----------------------------------//
 
+	/**
+	 * Requests the columns that entered the render circle around the player and releases the ones that left
+	 * the wider circle loaded chunks are kept in (render distance plus {@link #UNLOAD_HYSTERESIS_CHUNKS}).
+	 * The circles are walked row by row as x intervals, so only the changed columns are touched:
+	 * a border crossing costs O(rows + changed columns) instead of rescanning every loaded or queued chunk.
+	 * Chunks loaded outside the old kept circle are tracked separately and released here as well.
+	 */
 	private void updateChunkQueues()
 	{
 		int renderDistance = Game.renderDistance;
 		ChunkCoord playerChunkCoords = getChunkCoordinatesForBlock(playerPosition); // Current player's chunk (includes Y)
+		int oldX = lastPlayerChunkCoord.x;
+		int oldZ = lastPlayerChunkCoord.z;
+		int oldRadius = requestedRadius;
+		int oldKeptRadius = keptRadius;
+		int newX = playerChunkCoords.x;
+		int newZ = playerChunkCoords.z;
+		int newKeptRadius = renderDistance + UNLOAD_HYSTERESIS_CHUNKS;
+
+		lastPlayerChunkCoord = playerChunkCoords;
+		requestedRadius = renderDistance;
+		keptRadius = newKeptRadius;
+		ensureChunkGridSize();
+
+		int minZ = newZ - newKeptRadius;
+		int maxZ = newZ + newKeptRadius;
+		if(oldKeptRadius >= 0)
+		{
+			minZ = Math.min(minZ, oldZ - oldKeptRadius);
+			maxZ = Math.max(maxZ, oldZ + oldKeptRadius);
+		}
+		for(int z = minZ; z <= maxZ; z++)
+		{
+			// Columns only in the new render circle are requested, columns only in the old kept circle are released.
+			// Requested columns are always inside the kept circle, so nothing requested is missed.
+			int newHalfWidth = rowHalfWidth(renderDistance, z - newZ);
+			int oldHalfWidth = rowHalfWidth(oldRadius, z - oldZ);
+			forEachColumnOutside(newX - newHalfWidth, newX + newHalfWidth, oldHalfWidth < 0, oldX - oldHalfWidth, oldX + oldHalfWidth, z, true);
+
+			int newKeptHalfWidth = rowHalfWidth(newKeptRadius, z - newZ);
+			int oldKeptHalfWidth = rowHalfWidth(oldKeptRadius, z - oldZ);
+			forEachColumnOutside(oldX - oldKeptHalfWidth, oldX + oldKeptHalfWidth, newKeptHalfWidth < 0, newX - newKeptHalfWidth, newX + newKeptHalfWidth, z, false);
+		}
+		releaseChunksOutsideKeptCircle();
+	}
 
-		Set<ChunkCoord> desiredChunkCoords = new HashSet<>();
-		List<ChunkCoord> newChunksToGenerate = new ArrayList<>();
-
-		// Iterate over a slightly larger square bounding box for checking
-		for(int x = -renderDistance - 2; x <= renderDistance + 2; x++)
+	/**
+	 * Queues the unload of force loaded chunks that are still outside the kept circle. The ones the circle
+	 * now covers stop being tracked, the ring delta releases them once it leaves them again.
+	 */
+	private void releaseChunksOutsideKeptCircle()
+	{
+		Iterator<ChunkCoord> iterator = chunksOutsideKeptCircle.iterator();
+		while(iterator.hasNext())
 		{
-			for(int z = -renderDistance - 2; z <= renderDistance + 2; z++)
+			ChunkCoord coord = iterator.next();
+			if(!isColumnRequested(coord) && loadedChunks.containsKey(coord))
 			{
-				// Calculate the 2D (XZ) squared distance from the player's XZ chunk
-				double dx = (double) x;
-				double dz = (double) z;
-				double distSqXZ = dx * dx + dz * dz;
-
-				if(distSqXZ <= (renderDistance * renderDistance))
-				{ // Include if within XZ radial distance
-					// Loop through all relevant Y-levels for terrain
-					for(int y = WORLD_MIN_CHUNK_Y; y <= WORLD_MAX_CHUNK_Y; y++)
-					{
-						ChunkCoord targetChunkCoord = new ChunkCoord(playerChunkCoords.x + x, y,
-								playerChunkCoords.z + z);
-						desiredChunkCoords.add(targetChunkCoord);
-
-						if(!loadedChunks.containsKey(targetChunkCoord) &&
-								!chunksToGenerateQueue.contains(targetChunkCoord) &&
-								!chunksToUploadQueue.stream().anyMatch(res -> res.coord.equals(targetChunkCoord)) &&
-								!chunksToForceUpdateQueue.contains(targetChunkCoord))
-						{
-							newChunksToGenerate.add(targetChunkCoord);
-						}
-					}
-				}
+				chunksToUnload.add(coord);
 			}
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Grows the loaded chunk grids (here and in the renderer) so every chunk of the kept circle and the
+	 * terrain's Y range has its own slot. Force loaded chunks outside that go to the grids' fallback maps.
+	 */
+	private void ensureChunkGridSize()
+	{
+		int sizeXZ = 2 * keptRadius + 1;
+		int sizeY = WORLD_MAX_CHUNK_Y - WORLD_MIN_CHUNK_Y + 1;
+		loadedChunks.ensureSize(sizeXZ, sizeY);
+		renderer.ensureChunkGridSize(sizeXZ, sizeY);
+	}
+
+	/**
+	 * Estimates the player's velocity from position deltas and points the generation scheduler at
+	 * the predicted position, with the camera frustum to prefer chunks in view.
+	 */
+	private void updateLoadFocus(Camera activeCamera)
+	{
+		float deltaTime = Time.deltaTime;
+		if(hasPreviousPlayerPosition && deltaTime > 0)
+		{
+			float vx = (playerPosition.x - previousPlayerPosition.x) / deltaTime;
+			float vy = (playerPosition.y - previousPlayerPosition.y) / deltaTime;
+			float vz = (playerPosition.z - previousPlayerPosition.z) / deltaTime;
+			playerVelocity.x += (vx - playerVelocity.x) * VELOCITY_SMOOTHING;
+			playerVelocity.y += (vy - playerVelocity.y) * VELOCITY_SMOOTHING;
+			playerVelocity.z += (vz - playerVelocity.z) * VELOCITY_SMOOTHING;
+		}
+		previousPlayerPosition.set(playerPosition);
+		hasPreviousPlayerPosition = true;
+
+		// Don't look further ahead than half the render distance, a teleport would otherwise throw the focus far away
+		float maxLookahead = Game.renderDistance * Chunk.CHUNK_SIZE * 0.5f;
+		float aheadX = playerVelocity.x * LOAD_LOOKAHEAD_SECONDS;
+		float aheadZ = playerVelocity.z * LOAD_LOOKAHEAD_SECONDS;
+		float ahead = (float) Math.sqrt(aheadX * aheadX + aheadZ * aheadZ);
+		if(ahead > maxLookahead)
+		{
+			aheadX *= maxLookahead / ahead;
+			aheadZ *= maxLookahead / ahead;
 		}
+		chunksToGenerate.setFocus((playerPosition.x + aheadX) / Chunk.CHUNK_SIZE, (playerPosition.z + aheadZ) / Chunk.CHUNK_SIZE,
+				activeCamera.getFrustum());
+	}
 
-		// Sort new chunks to generate by XZ distance from the player
-		newChunksToGenerate.sort(Comparator.comparingDouble(coord -> {
-			long dx = (long) coord.x - playerChunkCoords.x;
-			long dz = (long) coord.z - playerChunkCoords.z;
-			return (double) (dx * dx + dz * dz);
-		}));
+	/**
+	 * Half width of a render circle's row, i.e. the largest dx with dx * dx + dz * dz <= radius * radius,
+	 * or -1 if the row is outside the circle.
+	 */
+	private static int rowHalfWidth(int radius, int dz)
+	{
+		if(radius < 0 || Math.abs(dz) > radius)
+		{
+			return -1;
+		}
+		int remaining = radius * radius - dz * dz;
+		int halfWidth = (int) Math.sqrt(remaining);
+		// Guard against the square root rounding either way
+		while((halfWidth + 1) * (halfWidth + 1) <= remaining) halfWidth++;
+		while(halfWidth * halfWidth > remaining) halfWidth--;
+		return halfWidth;
+	}
 
-		for(ChunkCoord coord : newChunksToGenerate)
+	/**
+	 * Requests or releases every column of [from, to] in row z that is not in [otherFrom, otherTo].
+	 * An empty range (from > to) does nothing, and otherEmpty means no column is excluded.
+	 */
+	private void forEachColumnOutside(int from, int to, boolean otherEmpty, int otherFrom, int otherTo, int z, boolean request)
+	{
+		if(from > to)
+		{
+			return;
+		}
+		if(otherEmpty || otherTo < from || otherFrom > to)
 		{
-			chunksToGenerateQueue.add(coord);
+			columnRange(from, to, z, request);
+			return;
 		}
+		columnRange(from, otherFrom - 1, z, request);
+		columnRange(otherTo + 1, to, z, request);
+	}
 
-		// Identify chunks to unload: those currently loaded but not in the desired set.
-		Iterator<Map.Entry<ChunkCoord, Chunk>> iterator = loadedChunks.entrySet().iterator();
-		while(iterator.hasNext())
+	private void columnRange(int from, int to, int z, boolean request)
+	{
+		for(int x = from; x <= to; x++)
 		{
-			Map.Entry<ChunkCoord, Chunk> entry = iterator.next();
-			ChunkCoord currentLoadedCoord = entry.getKey();
+			if(request)
+			{
+				requestColumn(x, z);
+			}
+			else
+			{
+				releaseColumn(x, z);
+			}
+		}
+	}
 
-			if(!desiredChunkCoords.contains(currentLoadedCoord))
+	private void requestColumn(int chunkX, int chunkZ)
+	{
+		for(int y = WORLD_MIN_CHUNK_Y; y <= WORLD_MAX_CHUNK_Y; y++)
+		{
+			ChunkCoord coord = new ChunkCoord(chunkX, y, chunkZ);
+			chunksToUnload.remove(coord); // Came back before it was unloaded
+			if(loadedChunks.containsKey(coord) || generatingChunks.containsKey(coord.pack()))
 			{
-				if(!chunksToUnloadQueue.contains(currentLoadedCoord))
-				{
-					chunksToUnloadQueue.add(currentLoadedCoord);
-				}
+				continue;
+			}
+			Chunk cached = unloadedChunkCache.remove(coord);
+			if(cached != null)
+			{
+				restoreChunk(cached);
+			}
+			else
+			{
+				chunksToGenerate.add(coord);
 			}
 		}
 	}
 
+	private void releaseColumn(int chunkX, int chunkZ)
+	{
+		// Force loaded chunks can sit outside the terrain's Y range, so the whole loaded range is checked
+		for(int y = lowestLoadedChunkY; y <= highestLoadedChunkY; y++)
+		{
+			ChunkCoord coord = new ChunkCoord(chunkX, y, chunkZ);
+			chunksToGenerate.remove(coord);
+			Chunk generating = generatingChunks.remove(coord.pack());
+			if(generating != null)
+			{
+				generating.cancel(); // The worker skips it if it hasn't started, step 4 drops it otherwise
+			}
+			if(loadedChunks.containsKey(coord))
+			{
+				chunksToUnload.add(coord);
+			}
+		}
+		evictColumnIfUnused(chunkX, chunkZ); // Loaded chunks keep it until they are unloaded
+	}
+
+	/**
+	 * True if the chunk's column is still wanted, i.e. inside the circle loaded chunks are kept in.
+	 */
+	private boolean isColumnRequested(ChunkCoord coord)
+	{
+		long dx = (long) coord.x - lastPlayerChunkCoord.x;
+		long dz = (long) coord.z - lastPlayerChunkCoord.z;
+		return keptRadius >= 0 && dx * dx + dz * dz <= (long) keptRadius * keptRadius;
+	}
+
+	/**
+	 * Moves an unloaded chunk into the cache if it is fully meshed, so it can come back without any work,
+	 * and disposes it otherwise. Evicts the least recently unloaded chunks over the cache's memory ceiling.
+	 */
+	private void cacheOrDisposeChunk(Chunk chunk)
+	{
+		// A dirty or still meshing chunk would need a new mesh job anyway, and its pending results are dropped now
+		if(chunk.getState() != ChunkState.UPLOADED || chunk.isDirty())
+		{
+			chunk.dispose(); // Chunk disposes its own ChunkMesh
+			return;
+		}
+		Chunk replaced = unloadedChunkCache.put(chunk);
+		if(replaced != null && replaced != chunk)
+		{
+			replaced.dispose(); // An older copy, e.g. from before a force load regenerated the chunk
+		}
+		while(unloadedChunkCache.isOverCeiling())
+		{
+			unloadedChunkCache.pollEldest().dispose();
+		}
+	}
+
+	/**
+	 * Loads a chunk taken out of the unloaded chunk cache, drawing its old mesh again right away.
+	 * If a neighbour's border changed while it was cached, it is remeshed.
+	 */
+	private void restoreChunk(Chunk chunk)
+	{
+		ChunkCoord coord = chunk.getCoord();
+		putLoadedChunk(coord, chunk);
+		if(chunk.isUniformAir())
+		{
+			return; // Never had a mesh
+		}
+		this.renderer.registerChunkMesh(coord, chunk.getMesh());
+		if(chunk.isDirty())
+		{
+			queueForceUpdate(coord);
+		}
+	}
+
+	/**
+	 * Inserts a chunk into the loaded map, widening the Y range that releaseColumn scans if needed.
+	 * Chunks outside the kept circle are remembered so the next border crossing can release them.
+	 */
+	private void putLoadedChunk(ChunkCoord coord, Chunk chunk)
+	{
+		loadedChunks.put(coord, chunk);
+		chunkMapVersion++;
+		if(!isColumnRequested(coord))
+		{
+			chunksOutsideKeptCircle.add(coord);
+		}
+		lowestLoadedChunkY = Math.min(lowestLoadedChunkY, coord.y);
+		highestLoadedChunkY = Math.max(highestLoadedChunkY, coord.y);
+	}
+
+	private static ChunkCoord pollFirst(Set<ChunkCoord> set)
+	{
+		Iterator<ChunkCoord> iterator = set.iterator();
+		ChunkCoord first = iterator.next();
+		iterator.remove();
+		return first;
+	}
+
+	/**
+	 * Main thread chunk work. Force updates, unloads and uploads run until this frame's share of the
+	 * {@link FrameBudget} is spent, so fast machines drain the queues quickly and slow ones don't hitch.
+	 */
 	private void processChunkQueuesAsync()
 	{
-		int processedCount = 0;
+		frameBudget.beginFrame();
 
 		// 1. Process forced updates
-		while(!chunksToForceUpdateQueue.isEmpty() && processedCount < CHUNKS_PER_FRAME_PROCESS_LIMIT)
+		while(!chunksToForceUpdate.isEmpty() && frameBudget.canAfford(FrameBudget.Task.FORCE_UPDATE))
 		{
-			ChunkCoord coordToUpdate = chunksToForceUpdateQueue.poll();
-			if(coordToUpdate != null)
+			ChunkCoord coordToUpdate = pollFirst(chunksToForceUpdate);
+			Chunk chunk = loadedChunks.get(coordToUpdate);
+			if(chunk != null)
 			{
-				Chunk chunk = loadedChunks.get(coordToUpdate);
-				if(chunk != null)
-				{
-					submitChunkGenerationTask(chunk); // Re-submit for mesh gen
-					processedCount++;
-				}
+				long start = frameBudget.start();
+				submitChunkMeshTask(chunk); // Re-submit for mesh gen
+				frameBudget.record(FrameBudget.Task.FORCE_UPDATE, start);
 			}
 		}
 
 		// 2. Process unloading tasks
-		while(!chunksToUnloadQueue.isEmpty() && processedCount < CHUNKS_PER_FRAME_PROCESS_LIMIT)
+		while(!chunksToUnload.isEmpty() && frameBudget.canAfford(FrameBudget.Task.UNLOAD))
 		{
-			ChunkCoord coordToUnload = chunksToUnloadQueue.poll();
-			if(coordToUnload != null)
+			ChunkCoord coordToUnload = pollFirst(chunksToUnload);
+			long start = frameBudget.start();
+			Chunk chunk = loadedChunks.remove(coordToUnload);
+			if(chunk != null)
 			{
-				Chunk chunk = loadedChunks.remove(coordToUnload);
-				if(chunk != null)
-				{
-					this.renderer.disposeChunkMesh(coordToUnload); // Renderer needs to know about the ChunkMesh instance
-					chunk.dispose(); // Chunk disposes its own ChunkMesh
-					processedCount++;
-				}
+				chunkMapVersion++;
+				this.renderer.unregisterChunkMesh(coordToUnload); // The mesh lives on in the cache, or dies with the chunk
+				cacheOrDisposeChunk(chunk);
+				evictColumnIfUnused(coordToUnload.x, coordToUnload.z);
+				frameBudget.record(FrameBudget.Task.UNLOAD, start);
+			}
+		}
+
+		// 3. Submit new chunk generation tasks. Block data is generated on the thread pool,
+		// the main thread only creates the (empty) chunk object. Submitting is cheap, so this is bounded by
+		// the jobs in flight instead of by time: the rest stays in the scheduler, where it can still be
+		// re-prioritised or cancelled for free.
+		while(chunksToGenerate.size() > 0 && generatingChunks.size() < maxGeneratingChunks)
+		{
+			ChunkCoord coord = chunksToGenerate.poll();
+			if(loadedChunks.containsKey(coord) || generatingChunks.containsKey(coord.pack()))
+			{
+				continue;
 			}
+			Chunk newChunk = new Chunk(coord);
+			generatingChunks.put(coord.pack(), newChunk);
+			submitChunkGenerationTask(newChunk);
 		}
 
-		// 3. Submit new chunk generation tasks
-		int submittedCount = 0;
-		while(!chunksToGenerateQueue.isEmpty() && submittedCount < CHUNKS_PER_FRAME_GENERATE_LIMIT)
+		// 4. Insert chunks whose block data finished generating and queue them for meshing.
+		// This is just a map insert and a task submit, so the whole queue is drained every frame.
+		// Loaded neighbours were meshed as if this chunk were air, so they are remeshed too; collecting
+		// everything first means a chunk gets only one job even if several of its neighbours arrive together.
+		Set<Chunk> chunksToMesh = new LinkedHashSet<>();
+		Chunk generatedChunk;
+		while((generatedChunk = chunksGeneratedQueue.poll()) != null)
 		{
-			ChunkCoord coord = chunksToGenerateQueue.poll();
-			if(coord != null)
+			ChunkCoord coord = generatedChunk.getCoord();
+			if(generatingChunks.get(coord.pack()) == generatedChunk)
+			{
+				generatingChunks.remove(coord.pack()); // A cancelled chunk's coord may already be generating again
+			}
+			if(generatedChunk.isCancelled() || !isColumnRequested(coord))
+			{
+				// The player moved away while this one was generating, its column was already released
+				generatedChunk.dispose();
+				evictColumnIfUnused(coord.x, coord.z);
+				continue;
+			}
+			if(loadedChunks.containsKey(coord))
 			{
-				if(loadedChunks.containsKey(coord))
+				// The chunk was force loaded by setBlock while this one was generating, keep that one
+				generatedChunk.dispose();
+				continue;
+			}
+			putLoadedChunk(coord, generatedChunk);
+			if(generatedChunk.isUniformAir())
+			{
+				// Nothing to draw: no mesh job, no GL objects. A later setBlock queues a regular mesh update.
+				generatedChunk.setIsDirty(false);
+				generatedChunk.setState(ChunkState.UPLOADED);
+				continue;
+			}
+			chunksToMesh.add(generatedChunk);
+			for(int[] offset : ChunkBorders.FACE_OFFSETS)
+			{
+				Chunk neighbor = loadedChunks.get(coord.x + offset[0], coord.y + offset[1], coord.z + offset[2]);
+				if(neighbor != null && !neighbor.isUniformAir() &&
+						(neighbor.getState() == ChunkState.MESHING || neighbor.getState() == ChunkState.UPLOADED))
 				{
-					continue;
+					chunksToMesh.add(neighbor);
 				}
-				Chunk newChunk = new Chunk(coord);
-				loadedChunks.put(coord, newChunk);
-				submitChunkGenerationTask(newChunk);
-				submittedCount++;
 			}
 		}
+		for(Chunk chunk : chunksToMesh)
+		{
+			submitChunkMeshTask(chunk);
+		}
 
-		// 4. Process completed mesh data ready for GPU upload
-		int uploadedCount = 0;
-		while(!chunksToUploadQueue.isEmpty() && uploadedCount < CHUNKS_PER_FRAME_PROCESS_LIMIT)
+		// 5. Process completed mesh data ready for GPU upload
+		while(!chunksToUploadQueue.isEmpty() && frameBudget.canAfford(FrameBudget.Task.UPLOAD))
 		{
 			InstancedChunkMeshJobResult result = chunksToUploadQueue.poll(); // Use new result type
 			if(result != null)
 			{
 				Chunk chunk = loadedChunks.get(result.coord);
-				if(chunk != null)
+				// Stale results (chunk unloaded, reloaded as a new object, or remeshed since) are dropped without any GL work
+				if(chunk == result.chunk && !result.isStale())
 				{
-					// Pass the prepared instance data directly
-					chunk.getMesh().uploadToGPU(result.instanceData); // New signature
+					long start = frameBudget.start();
+					// glBufferSubData copies the pooled buffer, so it can be recycled right after
+					chunk.getMesh().uploadToGPU(result.instanceData, renderer.getChunkBufferArena());
 					this.renderer.registerChunkMesh(chunk.getCoord(), chunk.getMesh());
 					chunk.setIsDirty(false);
-					uploadedCount++;
+					chunk.setState(ChunkState.UPLOADED);
+					frameBudget.record(FrameBudget.Task.UPLOAD, start);
 				}
+				meshBufferPool.release(result.instanceData); // Also when the result was dropped
 			}
 		}
 	}
 
 	private void submitChunkGenerationTask(Chunk chunk)
+	{
+		final ChunkCoord coord = chunk.getCoord();
+		chunk.setState(ChunkState.GENERATING);
+
+		chunkGenerationThreadPool.submit(() ->
+		{
+			try
+			{
+				if(chunk.isCancelled())
+				{
+					return; // Left the render distance while queued
+				}
+				chunk.generate(columnCache);
+				chunksGeneratedQueue.add(chunk);
+			}
+			catch(Exception e)
+			{
+				Debug.logError("Error generating chunk blocks asynchronously for " + coord + ": " + e.getMessage());
+				e.printStackTrace();
+			}
+		});
+	}
+
+	private void submitChunkMeshTask(Chunk chunk)
 	{
 		if(chunk == null)
 			return;
 		final ChunkCoord coord = chunk.getCoord();
+		chunk.setState(ChunkState.MESHING);
+		final int meshRevision = chunk.nextMeshRevision();
+		final ChunkBorders borders = captureNeighborBorders(coord);
 
 		chunkGenerationThreadPool.submit(() ->
 		{
 			try
 			{
-				// Use the new signature for generateMeshData
-				List<ChunkMesh.QuadInstanceData> instanceDataList = new ArrayList<>();
-				chunk.getMesh().generateMeshData(chunk, instanceDataList); // New signature
+				if(chunk.isCancelled() || chunk.getMeshRevision() != meshRevision)
+				{
+					return; // Unloaded, or a newer job for this chunk is queued
+				}
+				ByteBuffer packedQuads = ChunkMesh.generateMeshData(chunk, borders, meshBufferPool);
 
-				// Add to upload queue using the new result type
-				chunksToUploadQueue.add(new InstancedChunkMeshJobResult(coord, instanceDataList)); // Add new result type
+				// The result takes ownership of the buffer until the main thread uploads it
+				InstancedChunkMeshJobResult result = new InstancedChunkMeshJobResult(chunk, meshRevision, packedQuads);
+				if(result.isStale())
+				{
+					meshBufferPool.release(packedQuads); // Went stale while meshing, skip the trip to the main thread
+					return;
+				}
+				chunksToUploadQueue.add(result);
 			}
 			catch(Exception e)
 			{
@@ -395,52 +691,167 @@ public class World
 		});
 	}
 
+	/**
+	 * Snapshots the border layers of the six loaded neighbours of a chunk, so the mesher can cull faces
+	 * hidden by adjacent chunks. Taken on the main thread, the worker only reads the copy.
+	 */
+	private ChunkBorders captureNeighborBorders(ChunkCoord coord)
+	{
+		ChunkBorders borders = new ChunkBorders();
+		for(int face = 0; face < ChunkBorders.FACE_OFFSETS.length; face++)
+		{
+			int[] offset = ChunkBorders.FACE_OFFSETS[face];
+			borders.setNeighbor(face, loadedChunks.get(coord.x + offset[0], coord.y + offset[1], coord.z + offset[2]));
+		}
+		return borders;
+	}
+
+	/**
+	 * Drops the cached heightmap of an XZ column once none of its chunks are loaded or being generated.
+	 */
+	private void evictColumnIfUnused(int chunkX, int chunkZ)
+	{
+		for(int y = WORLD_MIN_CHUNK_Y; y <= WORLD_MAX_CHUNK_Y; y++)
+		{
+			if(loadedChunks.get(chunkX, y, chunkZ) != null || generatingChunks.containsKey(ChunkCoord.pack(chunkX, y, chunkZ)))
+			{
+				return;
+			}
+		}
+		columnCache.evict(chunkX, chunkZ);
+	}
+
+	/**
+	 * @return The main thread chunk work budget, to tune it or read the achieved throughput.
+	 */
+	public FrameBudget getFrameBudget()
+	{
+		return frameBudget;
+	}
+
+	/**
+	 * @return The cache of recently unloaded chunks, to tune its memory ceiling or read its size.
+	 */
+	public UnloadedChunkCache getUnloadedChunkCache()
+	{
+		return unloadedChunkCache;
+	}
+
 	public Chunk getChunk(ChunkCoord coord)
 	{
 		return loadedChunks.get(coord);
 	}
 
+	/**
+	 * Same as {@link #getChunk(ChunkCoord)} without building a coordinate object.
+	 */
+	public Chunk getChunk(int chunkX, int chunkY, int chunkZ)
+	{
+		return loadedChunks.get(chunkX, chunkY, chunkZ);
+	}
+
 	// -----------------------------------//
 	// ------ Block Management ---------//
 	// -----------------------------------//
 
 	public void setBlock(Vector3i blockCoords, short blockId)
 	{
-		ChunkCoord chunkCoords = getChunkCoordinatesForBlock(blockCoords);
-		Chunk chunkToModify = loadedChunks.get(chunkCoords);
+		setBlock(blockCoords.x, blockCoords.y, blockCoords.z, blockId);
+	}
+
+	/**
+	 * Sets a block by world coordinates, force loading its chunk if needed, and queues the affected meshes for an update.
+	 */
+	public void setBlock(int x, int y, int z, short blockId)
+	{
+		int chunkX = x >> Chunk.CHUNK_SHIFT;
+		int chunkY = y >> Chunk.CHUNK_SHIFT;
+		int chunkZ = z >> Chunk.CHUNK_SHIFT;
+		int localX = x & Chunk.CHUNK_MASK;
+		int localY = y & Chunk.CHUNK_MASK;
+		int localZ = z & Chunk.CHUNK_MASK;
+
+		Chunk chunkToModify = loadedChunks.get(chunkX, chunkY, chunkZ);
+		if(chunkToModify != null && chunkToModify.getBlock(localX, localY, localZ) == blockId)
+		{
+			return; // Nothing changes, no coordinate objects needed
+		}
 
+		ChunkCoord chunkCoords = new ChunkCoord(chunkX, chunkY, chunkZ);
+		if(chunkToModify == null)
+		{
+			chunkToModify = unloadedChunkCache.remove(chunkCoords);
+			if(chunkToModify != null)
+			{
+				restoreChunk(chunkToModify); // The chunk was unloaded recently, keep its blocks
+			}
+		}
 		if(chunkToModify == null)
 		{
 			// If the chunk is not loaded, create it and add to loadedChunks
 			Debug.logWarning("Attempted to set block in unloaded chunk at: " + chunkCoords.toString() + ". Force loading it now.");
 			chunkToModify = new Chunk(chunkCoords);
-			loadedChunks.put(chunkCoords, chunkToModify);
+			chunkToModify.generate(columnCache); // The block data is needed right away, so this one is generated synchronously
+			chunksToGenerate.remove(chunkCoords);
+			putLoadedChunk(chunkCoords, chunkToModify);
 		}
 
-		Vector3i blockLocalCoords = getLocalBlockCoordinatesInChunk(blockCoords);
+		if(chunkToModify.getBlock(localX, localY, localZ) != blockId)
+		{
+			chunkToModify.setBlock(localX, localY, localZ, blockId);
+			queueForceUpdate(chunkCoords);
+
+			// A block on the chunk border can hide or expose a face of the neighbouring chunk
+			int last = Chunk.CHUNK_SIZE - 1;
+			if(localX == 0) queueForceUpdate(new ChunkCoord(chunkX - 1, chunkY, chunkZ));
+			if(localX == last) queueForceUpdate(new ChunkCoord(chunkX + 1, chunkY, chunkZ));
+			if(localY == 0) queueForceUpdate(new ChunkCoord(chunkX, chunkY - 1, chunkZ));
+			if(localY == last) queueForceUpdate(new ChunkCoord(chunkX, chunkY + 1, chunkZ));
+			if(localZ == 0) queueForceUpdate(new ChunkCoord(chunkX, chunkY, chunkZ - 1));
+			if(localZ == last) queueForceUpdate(new ChunkCoord(chunkX, chunkY, chunkZ + 1));
+		}
+	}
 
-		if(chunkToModify.getBlock(blockLocalCoords) != blockId)
+	private void queueForceUpdate(ChunkCoord chunkCoords)
+	{
+		if(!loadedChunks.containsKey(chunkCoords))
 		{
-			chunkToModify.setBlock(blockLocalCoords, blockId);
-			if(!chunksToForceUpdateQueue.contains(chunkCoords) && !chunksToGenerateQueue.contains(chunkCoords) && !chunksToUploadQueue.stream().anyMatch(res -> res.coord.equals(chunkCoords)))
+			Chunk cached = unloadedChunkCache.get(chunkCoords);
+			if(cached != null)
 			{
-				chunksToForceUpdateQueue.add(chunkCoords);
+				cached.setIsDirty(true); // Its mesh no longer matches the border, it is remeshed once restored
 			}
+			return;
 		}
+		chunksToForceUpdate.add(chunkCoords); // Already queued chunks are skipped by the set
 	}
 
 	public short getBlock(Vector3i blockCoords)
 	{
-		ChunkCoord chunkCoords = getChunkCoordinatesForBlock(blockCoords);
-		Chunk chunk = loadedChunks.get(chunkCoords);
+		return getBlock(blockCoords.x, blockCoords.y, blockCoords.z);
+	}
 
+	/**
+	 * Block at the given world coordinates, air if its chunk isn't loaded. Allocates nothing.
+	 * For many queries in a small area, a {@link BlockReader} also skips the chunk lookup.
+	 */
+	public short getBlock(int x, int y, int z)
+	{
+		// CHUNK_SIZE is a power of two, so the arithmetic shift floors negative coordinates too
+		Chunk chunk = loadedChunks.get(x >> Chunk.CHUNK_SHIFT, y >> Chunk.CHUNK_SHIFT, z >> Chunk.CHUNK_SHIFT);
 		if(chunk == null)
 		{
 			return BLOCK_TYPE_AIR_ID;
 		}
+		return chunk.getBlock(x & Chunk.CHUNK_MASK, y & Chunk.CHUNK_MASK, z & Chunk.CHUNK_MASK);
+	}
 
-		Vector3i blockLocalCoords = getLocalBlockCoordinatesInChunk(blockCoords);
-		return chunk.getBlock(blockLocalCoords);
+	/**
+	 * Changes whenever a chunk is loaded or unloaded, see {@link BlockReader}.
+	 */
+	int getChunkMapVersion()
+	{
+		return chunkMapVersion;
 	}
 
 	// -----------------------------------//
@@ -0,0 +1,266 @@
+package com.juanpa.engine.world.chunk;
+
+import com.juanpa.engine.world.World;
+
+import java.util.Arrays;
+
+/**
+ * Palette-compressed block storage for a single chunk.
+ * Every distinct block ID in the chunk gets a slot in a small per-chunk palette, and the
+ * voxels only store the palette index, bit-packed into longs. The index width grows
+ * 1 -> 2 -> 4 -> 8 bits as the palette fills up; past 256 distinct IDs the storage switches
+ * to 16 bits per voxel holding the raw block ID (no palette).
+ * Since 64 is divisible by every supported width, an entry never straddles two longs.
+ * A chunk made of a single block ID (all air, all stone) has no data array at all, only the
+ * ID in palette[0]; real storage is allocated on the first set of a different ID.
+ *
+ * Voxels are addressed with a flat index, see {@link #index(int, int, int)}.
+ * Writes happen on the main thread only, while mesh workers take bulk copies. Every layout change
+ * (allocation, resize, fill) builds a new immutable {@link Layout} and publishes it through one volatile
+ * reference, so a reader that reads it once never mixes the width, data and palette of two layouts.
+ * The palette always has one slot per possible index, so any value read decodes in bounds.
+ * A voxel written during a copy may still come out old or new; the write queues a newer mesh job that replaces the result.
+ */
+public class BlockStorage
+{
+	private static final int SIZE_SHIFT = 6; // log2(Chunk.CHUNK_SIZE)
+	private static final int DIRECT_BITS = 16; // Raw block IDs, no palette
+
+	/**
+	 * Everything needed to decode the voxels, replaced as a whole whenever it changes.
+	 */
+	private static final class Layout
+	{
+		final int bitsPerEntry;
+		final int entriesPerLongShift; // log2(64 / bitsPerEntry)
+		final long entryMask;
+		final long[] data; // null while the storage is uniform
+		final short[] palette; // null in direct mode, otherwise 1 << bitsPerEntry slots
+
+		Layout(int bitsPerEntry, long[] data, short[] palette)
+		{
+			this.bitsPerEntry = bitsPerEntry;
+			this.entriesPerLongShift = Integer.numberOfTrailingZeros(64 / bitsPerEntry);
+			this.entryMask = (1L << bitsPerEntry) - 1;
+			this.data = data;
+			this.palette = palette;
+		}
+	}
+
+	private volatile Layout layout; // Written by the main thread, read once per call
+	private int paletteSize; // Main thread only
+
+	public BlockStorage()
+	{
+		this(World.BLOCK_TYPE_AIR_ID);
+	}
+
+	public BlockStorage(short initialBlockID)
+	{
+		fill(initialBlockID);
+	}
+
+	/**
+	 * Flat index of a local block position: x | z << 6 | y << 12.
+	 * X is the fastest-varying axis, so a run of indices walks along X.
+	 */
+	public static int index(int x, int y, int z)
+	{
+		return x | (z << SIZE_SHIFT) | (y << (SIZE_SHIFT * 2));
+	}
+
+	public short get(int index)
+	{
+		Layout current = layout;
+		if(current.data == null)
+		{
+			return current.palette[0];
+		}
+		long word = current.data[index >>> current.entriesPerLongShift];
+		int bitOffset = (index & ((1 << current.entriesPerLongShift) - 1)) * current.bitsPerEntry;
+		int value = (int) ((word >>> bitOffset) & current.entryMask);
+		return current.palette == null ? (short) value : current.palette[value];
+	}
+
+	public void set(int index, short blockID)
+	{
+		Layout current = layout;
+		if(current.data == null)
+		{
+			if(blockID == current.palette[0])
+			{
+				return;
+			}
+			// All zeroes, i.e. everything is still palette[0]
+			current = new Layout(current.bitsPerEntry, new long[Chunk.CHUNK_VOLUME / 64], current.palette);
+			layout = current;
+		}
+		int value = paletteIndexOf(current, blockID);
+		if(value < 0)
+		{
+			value = addToPalette(blockID);
+			current = layout; // Adding may have resized
+		}
+
+		int longIndex = index >>> current.entriesPerLongShift;
+		int bitOffset = (index & ((1 << current.entriesPerLongShift) - 1)) * current.bitsPerEntry;
+		long[] data = current.data;
+		data[longIndex] = (data[longIndex] & ~(current.entryMask << bitOffset)) | ((long) value << bitOffset);
+	}
+
+	/**
+	 * Resets every voxel to the given block ID. This releases the data array, the storage
+	 * becomes uniform until the next differing set.
+	 */
+	public void fill(short blockID)
+	{
+		short[] palette = new short[2];
+		palette[0] = blockID;
+		paletteSize = 1;
+		layout = new Layout(1, null, palette);
+	}
+
+	public boolean isUniform()
+	{
+		return layout.data == null;
+	}
+
+	/**
+	 * @return The single block ID of a uniform storage. Only meaningful if {@link #isUniform()}.
+	 */
+	public short getUniformBlockID()
+	{
+		return layout.palette[0];
+	}
+
+	/**
+	 * Decodes every voxel into a flat array laid out like {@link #index(int, int, int)}.
+	 * This is the bulk accessor used by the mesher, it walks each packed long only once.
+	 *
+	 * @param out Destination array, at least {@link Chunk#CHUNK_VOLUME} long.
+	 */
+	public void copyTo(short[] out)
+	{
+		// Read the layout once, so a bulk copy decodes with one consistent width and palette
+		Layout current = layout;
+		short[] pal = current.palette;
+		if(current.data == null)
+		{
+			Arrays.fill(out, 0, Chunk.CHUNK_VOLUME, pal[0]);
+			return;
+		}
+		int bits = current.bitsPerEntry;
+		long mask = current.entryMask;
+		int perLong = 64 / bits;
+
+		int outIndex = 0;
+		for(long word : current.data)
+		{
+			for(int i = 0; i < perLong; i++)
+			{
+				int value = (int) (word & mask);
+				out[outIndex++] = pal == null ? (short) value : pal[value];
+				word >>>= bits;
+			}
+		}
+	}
+
+	public int getBitsPerEntry()
+	{
+		return layout.bitsPerEntry;
+	}
+
+	/**
+	 * @return Number of distinct block IDs in the palette, or -1 in direct mode.
+	 */
+	public int getPaletteSize()
+	{
+		return layout.palette == null ? -1 : paletteSize;
+	}
+
+	/**
+	 * Rough heap footprint of the block data, used for stats and cache accounting.
+	 */
+	public long getMemoryBytes()
+	{
+		Layout current = layout;
+		long bytes = current.data == null ? 0 : (long) current.data.length * Long.BYTES;
+		if(current.palette != null)
+		{
+			bytes += (long) current.palette.length * Short.BYTES;
+		}
+		return bytes;
+	}
+
+	private int paletteIndexOf(Layout current, short blockID)
+	{
+		if(current.palette == null)
+		{
+			return blockID & 0xFFFF;
+		}
+		for(int i = 0; i < paletteSize; i++)
+		{
+			if(current.palette[i] == blockID)
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int addToPalette(short blockID)
+	{
+		Layout current = layout;
+		if(paletteSize == (1 << current.bitsPerEntry))
+		{
+			if(current.bitsPerEntry == 8)
+			{
+				resize(DIRECT_BITS);
+				return blockID & 0xFFFF;
+			}
+			resize(current.bitsPerEntry * 2);
+			current = layout;
+		}
+		// The slot already exists, and nothing refers to it until the caller writes the voxel
+		current.palette[paletteSize] = blockID;
+		return paletteSize++;
+	}
+
+	/**
+	 * Re-encodes the data with a wider entry and publishes the new layout once it is complete.
+	 */
+	private void resize(int newBits)
+	{
+		Layout old = layout;
+		int oldBits = old.bitsPerEntry;
+		long oldMask = old.entryMask;
+		int oldPerLong = 64 / oldBits;
+
+		boolean direct = newBits == DIRECT_BITS;
+		int newShift = Integer.numberOfTrailingZeros(64 / newBits);
+		long[] newData = new long[Chunk.CHUNK_VOLUME / (64 / newBits)];
+		short[] newPalette = direct ? null : Arrays.copyOf(old.palette, 1 << newBits);
+		if(direct)
+		{
+			paletteSize = 0;
+		}
+
+		// Palette indices keep their meaning when only the width grows, so they are copied as-is
+		int index = 0;
+		for(long word : old.data)
+		{
+			for(int i = 0; i < oldPerLong; i++)
+			{
+				int value = (int) (word & oldMask);
+				if(direct)
+				{
+					value = old.palette[value] & 0xFFFF;
+				}
+				newData[index >>> newShift] |= (long) value << ((index & ((1 << newShift) - 1)) * newBits);
+				word >>>= oldBits;
+				index++;
+			}
+		}
+		layout = new Layout(newBits, newData, newPalette);
+	}
+}
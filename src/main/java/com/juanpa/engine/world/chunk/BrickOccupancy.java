@@ -0,0 +1,108 @@
+package com.juanpa.engine.world.chunk;
+
+import java.util.Arrays;
+
+/**
+ * Coarse occupancy index of a chunk: the chunk is split into 8x8x8 bricks, and each brick keeps
+ * the number of non-air blocks in it plus one bit telling whether it has any.
+ * Together with the chunk-wide count this lets ray traversals skip an empty chunk or brick in one step
+ * instead of reading every block of it.
+ *
+ * Bricks are indexed like the blocks in {@link BlockStorage}: bx | bz << 3 | by << 6.
+ * A chunk that is all air or all solid has no count array, only the bits; it is allocated on the first change.
+ * Not thread-safe: filled by the generating thread before the chunk is visible, then updated on the main thread.
+ */
+public class BrickOccupancy
+{
+	public static final int BRICK_SHIFT = 3; // log2(BRICK_SIZE)
+	public static final int BRICK_SIZE = 1 << BRICK_SHIFT;
+	public static final int BRICK_MASK = BRICK_SIZE - 1; // Local block & BRICK_MASK is the coordinate inside the brick
+	private static final int BRICK_VOLUME = BRICK_SIZE * BRICK_SIZE * BRICK_SIZE;
+	private static final int BRICKS_SHIFT = Chunk.CHUNK_SHIFT - BRICK_SHIFT; // log2(bricks per chunk axis)
+	private static final int BRICK_COUNT = 1 << (BRICKS_SHIFT * 3);
+
+	private final long[] occupied = new long[BRICK_COUNT / 64]; // One bit per brick, set if it holds any non-air block
+	private short[] solidCounts; // null while every brick is either empty or full, the bits tell which
+	private int solidCount; // Non-air blocks in the whole chunk
+
+	/**
+	 * Marks every brick as empty, or every brick as full. Releases the count array.
+	 */
+	public void reset(boolean solid)
+	{
+		Arrays.fill(occupied, solid ? -1L : 0L);
+		solidCounts = null;
+		solidCount = solid ? Chunk.CHUNK_VOLUME : 0;
+	}
+
+	/**
+	 * Records a block changing between air and non-air. Changes between two air or two non-air blocks are ignored.
+	 */
+	public void update(int localX, int localY, int localZ, boolean wasSolid, boolean isSolid)
+	{
+		if(wasSolid == isSolid)
+		{
+			return;
+		}
+		if(solidCounts == null)
+		{
+			allocateCounts();
+		}
+		int brick = brickIndex(localX, localY, localZ);
+		int count = solidCounts[brick] + (isSolid ? 1 : -1);
+		solidCounts[brick] = (short) count;
+		solidCount += isSolid ? 1 : -1;
+		if(count == 0)
+		{
+			occupied[brick >>> 6] &= ~(1L << brick);
+		}
+		else
+		{
+			occupied[brick >>> 6] |= 1L << brick;
+		}
+	}
+
+	/**
+	 * True if the chunk has no non-air block at all.
+	 */
+	public boolean isEmpty()
+	{
+		return solidCount == 0;
+	}
+
+	/**
+	 * True if the brick containing the local block has no non-air block. No bounds check.
+	 */
+	public boolean isBrickEmpty(int localX, int localY, int localZ)
+	{
+		int brick = brickIndex(localX, localY, localZ);
+		return (occupied[brick >>> 6] & (1L << brick)) == 0;
+	}
+
+	public int getSolidCount()
+	{
+		return solidCount;
+	}
+
+	public long getMemoryBytes()
+	{
+		return occupied.length * 8L + (solidCounts != null ? solidCounts.length * 2L : 0);
+	}
+
+	private void allocateCounts()
+	{
+		solidCounts = new short[BRICK_COUNT];
+		for(int brick = 0; brick < BRICK_COUNT; brick++)
+		{
+			if((occupied[brick >>> 6] & (1L << brick)) != 0)
+			{
+				solidCounts[brick] = BRICK_VOLUME; // Bits without counts only come from reset, so a set bit is a full brick
+			}
+		}
+	}
+
+	private static int brickIndex(int localX, int localY, int localZ)
+	{
+		return (localX >>> BRICK_SHIFT) | ((localZ >>> BRICK_SHIFT) << BRICKS_SHIFT) | ((localY >>> BRICK_SHIFT) << (BRICKS_SHIFT * 2));
+	}
+}
@@ -3,30 +3,51 @@ package com.juanpa.engine.world.chunk;
 
 import com.juanpa.engine.Debug;
 import com.juanpa.engine.world.World;
-import com.juanpa.engine.world.generation.FastNoiseLite;
-import com.juanpa.game.Game;
+import com.juanpa.engine.world.generation.ColumnCache;
 
 import org.joml.Vector3i;
 
 public class Chunk
 {
 	public static final byte CHUNK_SIZE = 64;
+	public static final int CHUNK_SHIFT = 6; // log2(CHUNK_SIZE): world block >> CHUNK_SHIFT is the chunk coordinate
+	public static final int CHUNK_MASK = CHUNK_SIZE - 1; // World block & CHUNK_MASK is the coordinate inside the chunk
 	public static final int CHUNK_VOLUME = CHUNK_SIZE * CHUNK_SIZE * CHUNK_SIZE;
 
-	public short[][][] blocks = new short[CHUNK_SIZE][CHUNK_SIZE][CHUNK_SIZE]; // Make blocks public for ChunkMesh.generateMeshData
+	private final BlockStorage blocks = new BlockStorage(); // Palette-compressed, see BlockStorage
+	private final BrickOccupancy occupancy = new BrickOccupancy(); // Which 8x8x8 bricks hold non-air blocks, kept in sync with blocks
 	ChunkCoord chunkCoords;
-	ChunkMesh mesh; // This holds the GPU-related mesh data
+	ChunkMesh mesh; // This holds the GPU-related mesh data, created on first upload
 
 	boolean isDirty; // Indicates if block data has changed and mesh needs re-generation
-	boolean isEmpty;
+	private volatile ChunkState state; // Written by worker threads, read by the main thread
+	private volatile boolean cancelled; // Set by the main thread once the chunk leaves the world, jobs check it before running
+	private volatile int meshRevision; // Bumped by the main thread per mesh job, only the newest job's result is uploaded
 
+	// Layer thicknesses
+	static final int GRASS_LAYER_THICKNESS = 1;
+	static final int DIRT_LAYER_THICKNESS = 3; // Slightly thinner dirt layer
+	static final int BEDROCK_THICKNESS = 4; // Make bedrock thicker at the very bottom
+	public static final int MIN_SURFACE_HEIGHT = BEDROCK_THICKNESS + GRASS_LAYER_THICKNESS + DIRT_LAYER_THICKNESS; // Ensure enough space for layers
+
+	/**
+	 * Creates an empty chunk. Block data is filled in later by {@link #generate(ColumnCache)}, usually on a worker thread.
+	 */
 	public Chunk(ChunkCoord chunkCoords)
 	{
 		this.chunkCoords = chunkCoords;
-		generateChunk(); // Generates block data (CPU-side)
-		this.mesh = new ChunkMesh(); // Initialize ChunkMesh, but don't generate/upload data yet
 		this.isDirty = true; // New chunk is dirty, needs mesh generation/upload
-		this.isEmpty = true;
+		this.state = ChunkState.EMPTY;
+	}
+
+	/**
+	 * Generates the chunk's block data (CPU-side only, no GL calls) and marks it as GENERATED.
+	 * Safe to call from a worker thread as long as the chunk is not yet visible to the world.
+	 */
+	public void generate(ColumnCache columnCache)
+	{
+		generateChunk(columnCache);
+		this.state = ChunkState.GENERATED;
 	}
 
 	/**
@@ -45,12 +66,31 @@ public class Chunk
 			Debug.logError("Attempted to set block outside chunk bounds: " + localCoords);
 			return;
 		}
-		this.blocks[localCoords.x][localCoords.y][localCoords.z] = blockID;
-		this.isDirty = true; // Mark chunk as dirty when blocks change
+		setBlock(localCoords.x, localCoords.y, localCoords.z, blockID);
 		// Note: The world class will now be responsible for detecting dirty chunks
 		// and re-queuing them for mesh generation/upload.
 	}
 
+	/**
+	 * Fast path for hot loops: no bounds check, the coordinates must be in [0, CHUNK_SIZE).
+	 */
+	public short getBlock(int localX, int localY, int localZ)
+	{
+		return blocks.get(BlockStorage.index(localX, localY, localZ));
+	}
+
+	/**
+	 * Fast path for hot loops: no bounds check, the coordinates must be in [0, CHUNK_SIZE).
+	 */
+	public void setBlock(int localX, int localY, int localZ, short blockID)
+	{
+		int index = BlockStorage.index(localX, localY, localZ);
+		short previous = blocks.get(index);
+		blocks.set(index, blockID);
+		occupancy.update(localX, localY, localZ, previous != World.BLOCK_TYPE_AIR_ID, blockID != World.BLOCK_TYPE_AIR_ID);
+		this.isDirty = true;
+	}
+
 	public short getBlock(Vector3i localCoords)
 	{
 		if(localCoords.x < 0 || localCoords.x >= CHUNK_SIZE || localCoords.y < 0 || localCoords.y >= CHUNK_SIZE || localCoords.z < 0 || localCoords.z >= CHUNK_SIZE)
@@ -59,7 +99,7 @@ public class Chunk
 			// Debug.logError("Attempted to get block outside chunk bounds: " + localCoords);
 			return 0; // Return AIR for out of bounds as per common voxel engine practice
 		}
-		return this.blocks[localCoords.x][localCoords.y][localCoords.z];
+		return this.blocks.get(BlockStorage.index(localCoords.x, localCoords.y, localCoords.z));
 	}
 
 	void generateTestChunk()
@@ -86,11 +126,12 @@ public class Chunk
 				{
 					if(Math.random() > 0.8f)
 					{
-						blocks[x][y][z] = 1;
+						blocks.set(BlockStorage.index(x, y, z), (short) 1);
+						occupancy.update(x, y, z, false, true);
 					}
 					else
 					{
-						blocks[x][y][z] = 0;
+						blocks.set(BlockStorage.index(x, y, z), (short) 0);
 					}
 				}
 				continue;
@@ -113,58 +154,35 @@ public class Chunk
 		}
 	}
 
-	void generateChunk()
+	void generateChunk(ColumnCache columnCache)
 	{
-		int worldStartX = chunkCoords.x * CHUNK_SIZE;
 		int worldStartY = chunkCoords.y * CHUNK_SIZE;
-		int worldStartZ = chunkCoords.z * CHUNK_SIZE;
 
 		final short BLOCK_AIR = World.BLOCK_TYPE_AIR_ID;
 		final short BLOCK_DIRT = World.BLOCK_TYPE_SOLID_ID;
 		final short BLOCK_GRASS = World.BLOCK_TYPE_GRASS_ID;
 		final short BLOCK_STONE = World.BLOCK_TYPE_STONE_ID;
 		final short BLOCK_BEDROCK = 4; // Ensure this ID is consistent with World constants
+		final int BASE_SEA_LEVEL = ColumnCache.BASE_SEA_LEVEL;
 
-		// Noise parameters for height generation
-		final int NUM_OCTAVES = 8; // More octaves create more detailed terrain
-		final float LACUNARITY = 2.0f; // How quickly frequency increases per octave (causes detail)
-		final float PERSISTENCE = 0.5f; // How quickly amplitude decreases per octave (causes detail)
-		final float INITIAL_FREQUENCY = 0.002f; // Controls the "largeness" of features
-		final float HEIGHT_SCALE = 100.0f; // Maximum height variation
-		final int BASE_SEA_LEVEL = 50; // The base height of the terrain, like sea level
-
-		// Layer thicknesses
-		final int GRASS_LAYER_THICKNESS = 1;
-		final int DIRT_LAYER_THICKNESS = 3; // Slightly thinner dirt layer
-		final int BEDROCK_THICKNESS = 4; // Make bedrock thicker at the very bottom
-
-		FastNoiseLite noiseGenerator = new FastNoiseLite((int) Game.seed);
-		noiseGenerator.SetNoiseType(FastNoiseLite.NoiseType.Perlin);
-		noiseGenerator.SetFractalType(FastNoiseLite.FractalType.FBm); // Fractal Brownian Motion
-		noiseGenerator.SetFractalOctaves(NUM_OCTAVES);
-		noiseGenerator.SetFractalLacunarity(LACUNARITY);
-		noiseGenerator.SetFractalGain(PERSISTENCE);
-		noiseGenerator.SetFrequency(INITIAL_FREQUENCY);
+		// Surface heights are shared by every chunk of this XZ column
+		ColumnCache.Column column = columnCache.get(chunkCoords.x, chunkCoords.z);
+
+		// Nothing is ever placed above the highest surface (or below the bedrock floor), skip the voxel loop entirely
+		if(worldStartY > column.maxSurfaceHeight && worldStartY >= BEDROCK_THICKNESS)
+		{
+			return;
+		}
+
+		// Tracks whether every voxel got the same block, so the storage can collapse to a single ID
+		short firstBlockType = -1;
+		boolean isUniform = true;
 
 		for(int x = 0; x < CHUNK_SIZE; x++)
 		{
 			for(int z = 0; z < CHUNK_SIZE; z++)
 			{
-				float worldX = worldStartX + x;
-				float worldZ = worldStartZ + z;
-
-				// Get the height from the noise generator
-				float noiseValue = noiseGenerator.GetNoise(worldX, worldZ);
-
-				// Remap noise from [-1, 1] to [0, 1]
-				noiseValue = (noiseValue + 1.0f) / 2.0f;
-
-				// Calculate the final surface height
-				int surfaceHeight = BASE_SEA_LEVEL + (int) (noiseValue * HEIGHT_SCALE);
-
-				// Clamp surface height to prevent generation outside chunk bounds if CHUNK_SIZE is small
-				surfaceHeight = Math.min(surfaceHeight, 400); // Assuming World.WORLD_HEIGHT exists
-				surfaceHeight = Math.max(surfaceHeight, BEDROCK_THICKNESS + GRASS_LAYER_THICKNESS + DIRT_LAYER_THICKNESS); // Ensure enough space for layers
+				int surfaceHeight = column.getSurfaceHeight(x, z);
 
 				for(int y = 0; y < CHUNK_SIZE; y++)
 				{
@@ -191,18 +209,61 @@ public class Chunk
 					}
 
 
-					blocks[x][y][z] = blockType;
+					blocks.set(BlockStorage.index(x, y, z), blockType);
 					if(blockType != BLOCK_AIR)
 					{
-						this.isEmpty = false;
+						occupancy.update(x, y, z, false, true);
+					}
+					if(firstBlockType == -1)
+					{
+						firstBlockType = blockType;
+					}
+					else if(blockType != firstBlockType)
+					{
+						isUniform = false;
 					}
 				}
 			}
 		}
+
+		// All-air chunks never allocated anything, all-solid ones drop the array they just filled
+		if(isUniform)
+		{
+			blocks.fill(firstBlockType);
+			occupancy.reset(firstBlockType != BLOCK_AIR);
+		}
+	}
+
+	/**
+	 * Direct access to the block data, mainly for the mesher's bulk copy.
+	 */
+	public BlockStorage getBlockStorage()
+	{
+		return blocks;
+	}
+
+	public boolean isUniform()
+	{
+		return blocks.isUniform();
+	}
+
+	/**
+	 * True for chunks made only of air: they have no block array and are never meshed.
+	 */
+	public boolean isUniformAir()
+	{
+		return blocks.isUniform() && blocks.getUniformBlockID() == World.BLOCK_TYPE_AIR_ID;
 	}
 
+	/**
+	 * Returns the chunk's mesh, creating it on first use. Main thread only, since the mesh owns a range of the GL arena buffer.
+	 */
 	public ChunkMesh getMesh()
 	{
+		if(mesh == null)
+		{
+			mesh = new ChunkMesh();
+		}
 		return mesh;
 	}
 
@@ -211,14 +272,67 @@ public class Chunk
 		return chunkCoords;
 	}
 
+	public ChunkState getState()
+	{
+		return state;
+	}
+
+	public void setState(ChunkState newState)
+	{
+		state = newState;
+	}
+
+	/**
+	 * Marks the chunk as no longer wanted. Queued jobs for it are skipped and finished results are dropped.
+	 */
+	public void cancel()
+	{
+		cancelled = true;
+	}
+
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+
+	/**
+	 * Starts a new mesh job and returns its revision. Results of older jobs become stale.
+	 * Main thread only.
+	 */
+	public int nextMeshRevision()
+	{
+		return ++meshRevision;
+	}
+
+	public int getMeshRevision()
+	{
+		return meshRevision;
+	}
+
 	public boolean isDirty()
 	{
 		return isDirty;
 	}
 
+	/**
+	 * True if the chunk has no non-air block, including chunks whose blocks were all removed after generation.
+	 */
 	public boolean isEmpty()
-	{ // Added getter for consistency, though hasAnySolidBlocks() exists
-		return isEmpty;
+	{
+		return occupancy.isEmpty();
+	}
+
+	/**
+	 * True if the 8x8x8 brick containing the local block has no non-air block. No bounds check.
+	 */
+	public boolean isBrickEmpty(int localX, int localY, int localZ)
+	{
+		return occupancy.isBrickEmpty(localX, localY, localZ);
+	}
+
+	public BrickOccupancy getOccupancy()
+	{
+		return occupancy;
 	}
 
 	public void setIsDirty(boolean newIsDirtyValue)
@@ -236,6 +350,7 @@ public class Chunk
 	public void dispose()
 	{
 		// Debug.log("Disposing chunk: " + chunkCoords);
+		cancelled = true; // Anything still queued for this chunk is pointless now
 		if(mesh != null)
 		{
 			mesh.cleanup(); // Call the ChunkMesh's cleanup method to free GPU resources
@@ -0,0 +1,125 @@
+package com.juanpa.engine.world.chunk;
+
+import com.juanpa.engine.world.World;
+
+import java.util.Arrays;
+
+/**
+ * Read-only snapshot of the six neighbour layers touching a chunk, used by the mesher to cull
+ * faces against adjacent chunks instead of assuming everything outside the chunk is air.
+ *
+ * Each face is 64 rows of 64 bits in the mesher's (u, v) frame for that axis:
+ * X faces -> row y, bit z; Y faces -> row x, bit z; Z faces -> row x, bit y.
+ * A set bit means the neighbour voxel right across the border is solid.
+ * A null face means the neighbour is not loaded (or all air) and is treated as air.
+ *
+ * Taken on the main thread when a mesh job is submitted, then only read by the worker.
+ */
+public class ChunkBorders
+{
+	public static final int FACE_POS_X = 0;
+	public static final int FACE_NEG_X = 1;
+	public static final int FACE_POS_Y = 2;
+	public static final int FACE_NEG_Y = 3;
+	public static final int FACE_POS_Z = 4;
+	public static final int FACE_NEG_Z = 5;
+
+	// Chunk offset towards the neighbour of each face
+	public static final int[][] FACE_OFFSETS = {
+			{1, 0, 0}, {-1, 0, 0},
+			{0, 1, 0}, {0, -1, 0},
+			{0, 0, 1}, {0, 0, -1}
+	};
+
+	private static final long[] FULL_FACE = new long[Chunk.CHUNK_SIZE];
+
+	static
+	{
+		Arrays.fill(FULL_FACE, -1L);
+	}
+
+	private final long[][] faces = new long[6][];
+
+	/**
+	 * Copies the layer of the given neighbour that touches this chunk's face.
+	 *
+	 * @param face     One of the FACE_* constants, seen from the chunk being meshed.
+	 * @param neighbor The neighbour chunk across that face, or null if it is not loaded.
+	 */
+	public void setNeighbor(int face, Chunk neighbor)
+	{
+		faces[face] = neighbor == null ? null : extractFace(face, neighbor.getBlockStorage());
+	}
+
+	/**
+	 * @return The border bits of a face, or null if the neighbour counts as air.
+	 */
+	public long[] getFace(int face)
+	{
+		return faces[face];
+	}
+
+	/**
+	 * True if every face has a fully solid neighbour layer, so a solid chunk has nothing visible.
+	 */
+	public boolean isFullyEnclosed()
+	{
+		for(long[] face : faces)
+		{
+			if(face != FULL_FACE)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long[] extractFace(int face, BlockStorage storage)
+	{
+		if(storage.isUniform())
+		{
+			// Shared arrays are fine, faces are never written after capture
+			return storage.getUniformBlockID() == World.BLOCK_TYPE_AIR_ID ? null : FULL_FACE;
+		}
+
+		int last = Chunk.CHUNK_SIZE - 1;
+		// The neighbour's layer across our +face is its 0 layer, and across our -face its last layer
+		int layer = (face & 1) == 0 ? 0 : last;
+
+		long[] rows = new long[Chunk.CHUNK_SIZE];
+		boolean any = false;
+		boolean all = true;
+		for(int u = 0; u < Chunk.CHUNK_SIZE; u++)
+		{
+			long row = 0L;
+			for(int v = 0; v < Chunk.CHUNK_SIZE; v++)
+			{
+				int index;
+				if(face <= FACE_NEG_X)
+				{
+					index = BlockStorage.index(layer, u, v);
+				}
+				else if(face <= FACE_NEG_Y)
+				{
+					index = BlockStorage.index(u, layer, v);
+				}
+				else
+				{
+					index = BlockStorage.index(u, v, layer);
+				}
+				if(storage.get(index) != World.BLOCK_TYPE_AIR_ID)
+				{
+					row |= 1L << v;
+				}
+			}
+			rows[u] = row;
+			any |= row != 0;
+			all &= row == -1L;
+		}
+		if(all)
+		{
+			return FULL_FACE;
+		}
+		return any ? rows : null;
+	}
+}
@@ -1,7 +1,5 @@
 package com.juanpa.engine.world.chunk;
 
-import java.util.Objects; // For Objects.hash and Objects.equals
-
 public class ChunkCoord
 {
 	public final int x, y, z;
@@ -13,6 +11,38 @@ public class ChunkCoord
 		this.z = z;
 	}
 
+	// Packed form: 21 bits per axis, two's complement, x in the low bits. Covers chunk coordinates in [-2^20, 2^20).
+	private static final int PACK_BITS = 21;
+	private static final long PACK_MASK = (1L << PACK_BITS) - 1;
+
+	/**
+	 * Packs chunk coordinates into one long, for primitive keyed maps. Coordinates outside the 21 bit range wrap.
+	 */
+	public static long pack(int x, int y, int z)
+	{
+		return (x & PACK_MASK) | (y & PACK_MASK) << PACK_BITS | (z & PACK_MASK) << (2 * PACK_BITS);
+	}
+
+	public static int unpackX(long packed)
+	{
+		return (int) (packed << (64 - PACK_BITS) >> (64 - PACK_BITS)); // Shift the field to the top and back to sign extend
+	}
+
+	public static int unpackY(long packed)
+	{
+		return (int) (packed << (64 - 2 * PACK_BITS) >> (64 - PACK_BITS));
+	}
+
+	public static int unpackZ(long packed)
+	{
+		return (int) (packed << (64 - 3 * PACK_BITS) >> (64 - PACK_BITS));
+	}
+
+	public long pack()
+	{
+		return pack(x, y, z);
+	}
+
 	@Override
 	public boolean equals(Object o)
 	{
@@ -27,7 +57,7 @@ public class ChunkCoord
 	@Override
 	public int hashCode()
 	{
-		return Objects.hash(x, y, z);
+		return (31 * (31 * x + y)) + z; // Same mixing as Objects.hash, without boxing the three ints
 	}
 
 	@Override
@@ -0,0 +1,268 @@
+package com.juanpa.engine.world.chunk;
+
+import com.juanpa.engine.util.Long2ObjectMap;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Chunk coordinate map backed by a toroidal grid: a chunk lives in slot
+ * (floorMod(x, sizeXZ), floorMod(y, sizeY), floorMod(z, sizeXZ)), so lookups are an array access
+ * with no hashing and no allocation.
+ *
+ * Loaded chunks always lie within a window around the player, and as long as the window fits in the grid
+ * no two of them share a slot. A chunk whose slot is taken by another coordinate, like a chunk force loaded far
+ * away, goes into a fallback map keyed by {@link ChunkCoord#pack()} instead. Fallback entries always map to
+ * an occupied slot, so a lookup only consults the map when the slot holds a different chunk, and even then
+ * nothing is allocated.
+ *
+ * Not thread safe.
+ */
+public class ChunkGrid<T>
+{
+	private int sizeXZ;
+	private int sizeY;
+	private ChunkCoord[] keys;
+	private Object[] values;
+	private final Long2ObjectMap<T> fallback = new Long2ObjectMap<>();
+	private int size;
+
+	/**
+	 * @param sizeXZ Slots along X and Z, at least the diameter in chunks of the area kept loaded.
+	 * @param sizeY  Slots along Y, at least the number of chunk layers kept loaded.
+	 */
+	public ChunkGrid(int sizeXZ, int sizeY)
+	{
+		allocate(Math.max(1, sizeXZ), Math.max(1, sizeY));
+	}
+
+	public T get(int x, int y, int z)
+	{
+		int slot = slotOf(x, y, z);
+		ChunkCoord key = keys[slot];
+		if(key == null)
+		{
+			return null; // Nothing in the fallback maps to an empty slot
+		}
+		if(key.x == x && key.y == y && key.z == z)
+		{
+			return valueAt(slot);
+		}
+		return fallback.get(ChunkCoord.pack(x, y, z));
+	}
+
+	public T get(ChunkCoord coord)
+	{
+		int slot = slotOf(coord.x, coord.y, coord.z);
+		ChunkCoord key = keys[slot];
+		if(key == null)
+		{
+			return null;
+		}
+		if(key.equals(coord))
+		{
+			return valueAt(slot);
+		}
+		return fallback.get(coord.pack());
+	}
+
+	public boolean containsKey(ChunkCoord coord)
+	{
+		return get(coord) != null;
+	}
+
+	/**
+	 * @param value Must not be null.
+	 * @return The value previously stored for the coordinate, or null.
+	 */
+	public T put(ChunkCoord coord, T value)
+	{
+		int slot = slotOf(coord.x, coord.y, coord.z);
+		ChunkCoord key = keys[slot];
+		if(key == null || key.equals(coord))
+		{
+			T previous = valueAt(slot);
+			keys[slot] = coord;
+			values[slot] = value;
+			if(previous == null)
+			{
+				size++;
+			}
+			return previous;
+		}
+		T previous = fallback.put(coord.pack(), value);
+		if(previous == null)
+		{
+			size++;
+		}
+		return previous;
+	}
+
+	/**
+	 * @return The removed value, or null if the coordinate wasn't stored.
+	 */
+	public T remove(ChunkCoord coord)
+	{
+		int slot = slotOf(coord.x, coord.y, coord.z);
+		ChunkCoord key = keys[slot];
+		if(key == null)
+		{
+			return null;
+		}
+		if(!key.equals(coord))
+		{
+			T removed = fallback.remove(coord.pack());
+			if(removed != null)
+			{
+				size--;
+			}
+			return removed;
+		}
+		T removed = valueAt(slot);
+		keys[slot] = null;
+		values[slot] = null;
+		size--;
+		promoteFallback(slot);
+		return removed;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * @return Number of entries that didn't fit in the grid, for stats.
+	 */
+	public int getFallbackSize()
+	{
+		return fallback.size();
+	}
+
+	public void clear()
+	{
+		Arrays.fill(keys, null);
+		Arrays.fill(values, null);
+		fallback.clear();
+		size = 0;
+	}
+
+	/**
+	 * Visits every entry, grid slots first. The grid must not be modified during the visit.
+	 * Fallback entries are visited with a coordinate rebuilt from their packed key.
+	 */
+	public void forEach(BiConsumer<ChunkCoord, T> action)
+	{
+		for(int slot = 0; slot < keys.length; slot++)
+		{
+			if(keys[slot] != null)
+			{
+				action.accept(keys[slot], valueAt(slot));
+			}
+		}
+		for(int i = fallback.nextIndex(0); i >= 0; i = fallback.nextIndex(i + 1))
+		{
+			long packed = fallback.keyAt(i);
+			action.accept(new ChunkCoord(ChunkCoord.unpackX(packed), ChunkCoord.unpackY(packed), ChunkCoord.unpackZ(packed)), fallback.valueAt(i));
+		}
+	}
+
+	/**
+	 * Grows the grid to at least the given size, re-slotting every entry. Does nothing if it is already big enough.
+	 */
+	public void ensureSize(int minSizeXZ, int minSizeY)
+	{
+		if(minSizeXZ <= sizeXZ && minSizeY <= sizeY)
+		{
+			return;
+		}
+		ChunkCoord[] oldKeys = keys;
+		Object[] oldValues = values;
+		long[] oldFallbackKeys = new long[fallback.size()];
+		Object[] oldFallbackValues = new Object[fallback.size()];
+		int fallbackCount = 0;
+		for(int i = fallback.nextIndex(0); i >= 0; i = fallback.nextIndex(i + 1))
+		{
+			oldFallbackKeys[fallbackCount] = fallback.keyAt(i);
+			oldFallbackValues[fallbackCount++] = fallback.valueAt(i);
+		}
+
+		allocate(Math.max(minSizeXZ, sizeXZ), Math.max(minSizeY, sizeY));
+		fallback.clear();
+		size = 0;
+		for(int slot = 0; slot < oldKeys.length; slot++)
+		{
+			if(oldKeys[slot] != null)
+			{
+				@SuppressWarnings("unchecked")
+				T value = (T) oldValues[slot];
+				put(oldKeys[slot], value);
+			}
+		}
+		for(int i = 0; i < fallbackCount; i++)
+		{
+			long packed = oldFallbackKeys[i];
+			@SuppressWarnings("unchecked")
+			T value = (T) oldFallbackValues[i];
+			put(new ChunkCoord(ChunkCoord.unpackX(packed), ChunkCoord.unpackY(packed), ChunkCoord.unpackZ(packed)), value);
+		}
+	}
+
+	public int getSizeXZ()
+	{
+		return sizeXZ;
+	}
+
+	public int getSizeY()
+	{
+		return sizeY;
+	}
+
+	private void allocate(int sizeXZ, int sizeY)
+	{
+		this.sizeXZ = sizeXZ;
+		this.sizeY = sizeY;
+		keys = new ChunkCoord[sizeXZ * sizeXZ * sizeY];
+		values = new Object[keys.length];
+	}
+
+	/**
+	 * Moves a fallback entry that maps to a freed slot into it, keeping fallback entries behind occupied slots.
+	 */
+	private void promoteFallback(int slot)
+	{
+		if(fallback.isEmpty())
+		{
+			return;
+		}
+		for(int i = fallback.nextIndex(0); i >= 0; i = fallback.nextIndex(i + 1))
+		{
+			long packed = fallback.keyAt(i);
+			int x = ChunkCoord.unpackX(packed);
+			int y = ChunkCoord.unpackY(packed);
+			int z = ChunkCoord.unpackZ(packed);
+			if(slotOf(x, y, z) == slot)
+			{
+				keys[slot] = new ChunkCoord(x, y, z);
+				values[slot] = fallback.remove(packed);
+				return;
+			}
+		}
+	}
+
+	private int slotOf(int x, int y, int z)
+	{
+		return Math.floorMod(x, sizeXZ) + sizeXZ * (Math.floorMod(z, sizeXZ) + sizeXZ * Math.floorMod(y, sizeY));
+	}
+
+	@SuppressWarnings("unchecked")
+	private T valueAt(int slot)
+	{
+		return (T) values[slot];
+	}
+}
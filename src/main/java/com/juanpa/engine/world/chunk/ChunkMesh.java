@@ -2,29 +2,37 @@
 package com.juanpa.engine.world.chunk;
 
 import com.juanpa.engine.Debug;
-import org.lwjgl.opengl.GL11;
+import com.juanpa.engine.renderer.ChunkBufferArena;
 import org.lwjgl.opengl.GL15;
-import org.lwjgl.opengl.GL20;
-import org.lwjgl.opengl.GL30;
-import org.lwjgl.opengl.GL31; // For glDrawArraysInstanced
-import org.lwjgl.opengl.GL33; // For glVertexAttribDivisor
 import org.lwjgl.system.MemoryUtil;
 
+import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
-import java.util.ArrayList; // For generating lists of instance data
-import java.util.List;
+import java.util.Arrays;
 
-// Helper class to store data for each instance (each greedy quad)
-// We'll pack this into a FloatBuffer for the VBO
-// Layout: origin(3 floats), dimensions(2 floats), normalID(1 float), blockTypeID(1 float) = 7 floats
+// Each instance (each greedy quad) is packed into two uints, read as an integer attribute (uvec2) by main.vert:
+// word 0: originX (7 bits) | originY (7) << 7 | originZ (7) << 14 | normalID (3) << 21
+// word 1: dimensionH (7 bits) | dimensionW (7) << 7 | blockTypeID (16) << 14
+// Origins and dimensions are in 0..64, so 7 bits each are enough.
 public class ChunkMesh
 {
-	private int vaoID; // This VAO will combine base quad VBO and instance VBO
-	private int instanceVBOID;
+	private ChunkBufferArena arena; // Set on the first non-empty upload
+	private ChunkBufferArena.Allocation allocation; // This mesh's range of quads in the arena, null while empty
 	private int instanceCount;
 
 	private static final short BLOCK_TYPE_AIR_ID = 0;
 
+	// The binary mesher packs a whole column of voxels into one long, which relies on CHUNK_SIZE == 64
+	private static final int COLUMN_COUNT = Chunk.CHUNK_SIZE * Chunk.CHUNK_SIZE;
+	private static final int AXIS_X = 0;
+	private static final int AXIS_Y = 1;
+	private static final int AXIS_Z = 2;
+
+	public static final int INTS_PER_QUAD = 2;
+	public static final int BYTES_PER_QUAD = INTS_PER_QUAD * Integer.BYTES;
+
+	private static final ThreadLocal<MeshScratch> MESH_SCRATCH = ThreadLocal.withInitial(MeshScratch::new);
+
 	// --- Static Base Quad for Instancing ---
 	private static int baseQuadVBO = -1; // Shared VBO for a 2D unit quad
 	// Vertices for a 1x1 quad (0,0) to (1,1) in 2D.
@@ -54,6 +62,11 @@ public class ChunkMesh
 		Debug.logInfo("Base quad VBO initialized: " + baseQuadVBO);
 	}
 
+	public static int getBaseQuadVBO()
+	{
+		return baseQuadVBO;
+	}
+
 	// Call this once at engine shutdown
 	public static void cleanupBaseQuad()
 	{
@@ -67,14 +80,6 @@ public class ChunkMesh
 	// --- End Static Base Quad ---
 
 
-	// Face normal templates (remains the same)
-	private static final float[] NORMAL_FRONT_F = {0.0f, 0.0f, 1.0f};
-	private static final float[] NORMAL_BACK_F = {0.0f, 0.0f, -1.0f};
-	private static final float[] NORMAL_LEFT_F = {-1.0f, 0.0f, 0.0f};
-	private static final float[] NORMAL_RIGHT_F = {1.0f, 0.0f, 0.0f};
-	private static final float[] NORMAL_TOP_F = {0.0f, 1.0f, 0.0f};
-	private static final float[] NORMAL_BOTTOM_F = {0.0f, -1.0f, 0.0f};
-
 	// Corresponding Normal IDs
 	private static final byte NORMAL_ID_FRONT = 0;
 	private static final byte NORMAL_ID_BACK = 1;
@@ -86,236 +91,298 @@ public class ChunkMesh
 
 	public ChunkMesh()
 	{
-		this.vaoID = GL30.glGenVertexArrays();
-		this.instanceVBOID = GL15.glGenBuffers();
 		this.instanceCount = 0;
 	}
 
-	// generateMeshData now populates a list of QuadInstanceData objects
-	public void generateMeshData(Chunk rawChunkData, List<QuadInstanceData> outInstanceData)
+	// generateMeshData writes the packed instance data, INTS_PER_QUAD ints per quad, into a buffer from the pool
+	// Static and GL-free, it runs on the chunk generation thread pool
+	// Returns the flipped buffer, owned by the caller until it is released to the pool, or null if nothing is visible
+	//
+	// borders: neighbour layers to cull border faces against, or null to treat everything outside as air
+	public static ByteBuffer generateMeshData(Chunk rawChunkData, ChunkBorders borders, MeshBufferPool bufferPool)
+	{
+		BlockStorage storage = rawChunkData.getBlockStorage();
+		if(storage.isUniform())
+		{
+			short blockType = storage.getUniformBlockID();
+			if(blockType == BLOCK_TYPE_AIR_ID || (borders != null && borders.isFullyEnclosed()))
+			{
+				return null; // Nothing visible: all air, or solid and buried under solid neighbours
+			}
+		}
+
+		MeshScratch scratch = MESH_SCRATCH.get();
+		PackedQuads outInstanceData = scratch.quads;
+		outInstanceData.begin(bufferPool.acquire());
+		try
+		{
+			short[] blocks = scratch.blocks;
+			storage.copyTo(blocks);
+			buildSolidColumns(blocks, scratch);
+
+			greedyMesh(scratch.columnsX, face(borders, ChunkBorders.FACE_POS_X), blocks, scratch.plane, outInstanceData, AXIS_X, true, NORMAL_ID_RIGHT);  // +X
+			greedyMesh(scratch.columnsX, face(borders, ChunkBorders.FACE_NEG_X), blocks, scratch.plane, outInstanceData, AXIS_X, false, NORMAL_ID_LEFT);  // -X
+			greedyMesh(scratch.columnsY, face(borders, ChunkBorders.FACE_POS_Y), blocks, scratch.plane, outInstanceData, AXIS_Y, true, NORMAL_ID_TOP);    // +Y
+			greedyMesh(scratch.columnsY, face(borders, ChunkBorders.FACE_NEG_Y), blocks, scratch.plane, outInstanceData, AXIS_Y, false, NORMAL_ID_BOTTOM);// -Y
+			greedyMesh(scratch.columnsZ, face(borders, ChunkBorders.FACE_POS_Z), blocks, scratch.plane, outInstanceData, AXIS_Z, true, NORMAL_ID_FRONT);  // +Z
+			greedyMesh(scratch.columnsZ, face(borders, ChunkBorders.FACE_NEG_Z), blocks, scratch.plane, outInstanceData, AXIS_Z, false, NORMAL_ID_BACK);  // -Z
+		}
+		catch(RuntimeException e)
+		{
+			bufferPool.release(outInstanceData.finish()); // Don't leak the off-heap buffer
+			Arrays.fill(scratch.plane, 0L); // greedyMesh expects a zeroed plane, an aborted call may have left bits behind
+			throw e;
+		}
+
+		ByteBuffer packedQuads = outInstanceData.finish();
+		if(packedQuads.remaining() == 0)
+		{
+			bufferPool.release(packedQuads);
+			return null;
+		}
+		return packedQuads;
+	}
+
+	private static long[] face(ChunkBorders borders, int face)
 	{
-		outInstanceData.clear();
-		short[][][] blocks = rawChunkData.blocks;
-
-		// Parameters for greedyMesh: blocks, outInstanceData, axis, u_axis, v_axis, normal_ID, normal_float_vec_for_origin_calc
-		greedyMesh(blocks, outInstanceData, 0, 1, 2, NORMAL_ID_RIGHT, NORMAL_RIGHT_F);  // +X
-		greedyMesh(blocks, outInstanceData, 0, 1, 2, NORMAL_ID_LEFT, NORMAL_LEFT_F);   // -X
-		greedyMesh(blocks, outInstanceData, 1, 0, 2, NORMAL_ID_TOP, NORMAL_TOP_F);      // +Y
-		greedyMesh(blocks, outInstanceData, 1, 0, 2, NORMAL_ID_BOTTOM, NORMAL_BOTTOM_F);// -Y
-		greedyMesh(blocks, outInstanceData, 2, 0, 1, NORMAL_ID_FRONT, NORMAL_FRONT_F);  // +Z
-		greedyMesh(blocks, outInstanceData, 2, 0, 1, NORMAL_ID_BACK, NORMAL_BACK_F);   // -Z
+		return borders == null ? null : borders.getFace(face);
 	}
 
-	private void greedyMesh(short[][][] blocks, List<QuadInstanceData> outInstanceData,
-							int axis, int u_axis, int v_axis,
-							byte normalID, float[] normalFloatVec)
+	/**
+	 * Builds one 64-bit solidity mask per column along each axis. Columns are indexed u * 64 + v, with the
+	 * same (axis, u, v) mapping the shader expects: X -> (y, z), Y -> (x, z), Z -> (x, y).
+	 * Bit i of a column is set when the voxel at position i along the axis is not air.
+	 */
+	private static void buildSolidColumns(short[] blocks, MeshScratch scratch)
 	{
-		// (Greedy meshing logic to find width, height, start_u, start_v, start_i for each quad)
-		// ... (similar to before, but calls addGreedyQuadInstance at the end) ...
-		int i_axis_size = Chunk.CHUNK_SIZE;
-		int u_axis_size = Chunk.CHUNK_SIZE;
-		int v_axis_size = Chunk.CHUNK_SIZE;
-		short[][] mask = new short[u_axis_size][v_axis_size];
-
-		for(int i_slice = 0; i_slice < i_axis_size; i_slice++)
+		long[] columnsX = scratch.columnsX;
+		long[] columnsY = scratch.columnsY;
+		long[] columnsZ = scratch.columnsZ;
+		Arrays.fill(columnsY, 0L);
+		Arrays.fill(columnsZ, 0L);
+
+		int index = 0; // Walks the flat x | z << 6 | y << 12 layout in order
+		for(int y = 0; y < Chunk.CHUNK_SIZE; y++)
 		{
-			// Build mask for the current slice
-			for(int u = 0; u < u_axis_size; u++)
+			long yBit = 1L << y;
+			for(int z = 0; z < Chunk.CHUNK_SIZE; z++)
 			{
-				for(int v = 0; v < v_axis_size; v++)
+				long zBit = 1L << z;
+				long rowX = 0L;
+				for(int x = 0; x < Chunk.CHUNK_SIZE; x++)
 				{
-					int[] currBlockCoords = new int[3];
-					currBlockCoords[axis] = i_slice;
-					currBlockCoords[u_axis] = u;
-					currBlockCoords[v_axis] = v;
-
-					int nextX = currBlockCoords[0] + (int) normalFloatVec[0];
-					int nextY = currBlockCoords[1] + (int) normalFloatVec[1];
-					int nextZ = currBlockCoords[2] + (int) normalFloatVec[2];
-
-					short currentBlock = getBlockSafe(blocks, currBlockCoords[0], currBlockCoords[1], currBlockCoords[2]);
-					short adjacentBlock = getBlockSafe(blocks, nextX, nextY, nextZ);
-
-					if(currentBlock != BLOCK_TYPE_AIR_ID && adjacentBlock == BLOCK_TYPE_AIR_ID)
+					if(blocks[index++] != BLOCK_TYPE_AIR_ID)
 					{
-						mask[u][v] = currentBlock;
-					}
-					else
-					{
-						mask[u][v] = BLOCK_TYPE_AIR_ID;
+						rowX |= 1L << x;
+						columnsY[(x << 6) | z] |= yBit;
+						columnsZ[(x << 6) | y] |= zBit;
 					}
 				}
+				columnsX[(y << 6) | z] = rowX;
 			}
+		}
+	}
 
-			// Iterate through the mask to find quads
-			for(int u_start = 0; u_start < u_axis_size; u_start++)
+	/**
+	 * Binary greedy meshing of all faces pointing one way along an axis.
+	 * Visible faces are found for a whole column at once with a shift and an AND (the neighbour
+	 * border supplies the bit past the chunk edge, null meaning air), then scattered into
+	 * per-slice planes (one long per row, bits along v). Quads are grown along v with bit scans and
+	 * then along u while the next row has the same run of bits and block types.
+	 */
+	private static void greedyMesh(long[] columns, long[] border, short[] blocks, long[] plane, PackedQuads outInstanceData,
+								   int axis, boolean positive, byte normalID)
+	{
+		// 1. Face masks: solid here, air next along the normal
+		for(int uv = 0; uv < COLUMN_COUNT; uv++)
+		{
+			long column = columns[uv];
+			int u = uv >>> 6;
+			int v = uv & 63;
+			long neighborSolid = border == null ? 0L : (border[u] >>> v) & 1L;
+			long faces = positive
+					? column & ~((column >>> 1) | (neighborSolid << 63))
+					: column & ~((column << 1) | neighborSolid);
+			long vBit = 1L << v;
+			while(faces != 0)
 			{
-				for(int v_start = 0; v_start < v_axis_size; )
+				int slice = Long.numberOfTrailingZeros(faces);
+				plane[(slice << 6) | u] |= vBit;
+				faces &= faces - 1;
+			}
+		}
+
+		// 2. Merge each slice's face bits into quads. The plane is left zeroed for the next call.
+		for(int slice = 0; slice < Chunk.CHUNK_SIZE; slice++)
+		{
+			int sliceBase = slice << 6;
+			for(int u = 0; u < Chunk.CHUNK_SIZE; u++)
+			{
+				long row = plane[sliceBase | u];
+				if(row == 0)
 				{
-					short blockTypeForFace = mask[u_start][v_start];
-					if(blockTypeForFace != BLOCK_TYPE_AIR_ID)
-					{
-						int quadWidth = 1; // Extent along v_axis
-						while(v_start + quadWidth < v_axis_size && mask[u_start][v_start + quadWidth] == blockTypeForFace)
-						{
-							quadWidth++;
-						}
+					continue;
+				}
+				plane[sliceBase | u] = 0;
 
-						int quadHeight = 1; // Extent along u_axis
-						boolean canExpandHeight = true;
-						while(u_start + quadHeight < u_axis_size && canExpandHeight)
-						{
-							for(int k = 0; k < quadWidth; k++)
-							{
-								if(mask[u_start + quadHeight][v_start + k] != blockTypeForFace)
-								{
-									canExpandHeight = false;
-									break;
-								}
-							}
-							if(canExpandHeight)
-							{
-								quadHeight++;
-							}
-						}
+				while(row != 0)
+				{
+					int vStart = Long.numberOfTrailingZeros(row);
+					short blockType = blocks[blockIndex(axis, slice, u, vStart)];
 
-						// Add one instance for this merged quad
-						addGreedyQuadInstance(outInstanceData, i_slice, u_start, v_start,
-								quadHeight, quadWidth, // Note: height along u_axis, width along v_axis
-								axis, u_axis, v_axis,
-								normalID, (byte) blockTypeForFace, normalFloatVec);
+					// Grow along v while the face bits continue with the same block type
+					int width = 1;
+					while(vStart + width < Chunk.CHUNK_SIZE && ((row >>> (vStart + width)) & 1L) != 0
+							&& blocks[blockIndex(axis, slice, u, vStart + width)] == blockType)
+					{
+						width++;
+					}
+					long run = width == 64 ? -1L : ((1L << width) - 1) << vStart;
+					row &= ~run;
 
-						for(int eu = u_start; eu < u_start + quadHeight; eu++)
+					// Grow along u while the next row contains the whole run with the same block type
+					int height = 1;
+					while(u + height < Chunk.CHUNK_SIZE)
+					{
+						int nextRowIndex = sliceBase | (u + height);
+						long nextRow = plane[nextRowIndex];
+						if((nextRow & run) != run || !isRunOfType(blocks, axis, slice, u + height, vStart, width, blockType))
 						{
-							for(int ev = v_start; ev < v_start + quadWidth; ev++)
-							{
-								mask[eu][ev] = BLOCK_TYPE_AIR_ID;
-							}
+							break;
 						}
-						v_start += quadWidth;
-					}
-					else
-					{
-						v_start++;
+						plane[nextRowIndex] = nextRow & ~run;
+						height++;
 					}
+
+					addQuadInstance(outInstanceData, axis, positive, slice, u, vStart, height, width, normalID, blockType);
 				}
 			}
 		}
 	}
 
-	private short getBlockSafe(short[][][] blocks, int x, int y, int z)
+	private static boolean isRunOfType(short[] blocks, int axis, int slice, int u, int vStart, int width, short blockType)
 	{
-		if(x < 0 || x >= Chunk.CHUNK_SIZE || y < 0 || y >= Chunk.CHUNK_SIZE || z < 0 || z >= Chunk.CHUNK_SIZE)
+		for(int v = vStart; v < vStart + width; v++)
 		{
-			return BLOCK_TYPE_AIR_ID;
+			if(blocks[blockIndex(axis, slice, u, v)] != blockType)
+			{
+				return false;
+			}
 		}
-		return blocks[x][y][z];
+		return true;
 	}
 
-
-	private void addGreedyQuadInstance(List<QuadInstanceData> outInstanceData,
-									   int i_slice, int u_start, int v_start,
-									   int quadHeight, int quadWidth, // height along u_axis, width along v_axis
-									   int axis, int u_axis, int v_axis,
-									   byte normalID, byte blockTypeID, float[] normalFloatVec)
+	// Flat block index of the voxel at (slice, u, v) in the given axis' frame
+	private static int blockIndex(int axis, int slice, int u, int v)
 	{
-		float ox = 0, oy = 0, oz = 0;
-
-		// Determine origin (bottom-left corner of the quad in chunk space)
-		// The origin is the (0,0) point for the 2D base quad.
-		float[] originCoords = new float[3];
-		originCoords[u_axis] = u_start;
-		originCoords[v_axis] = v_start;
-
-		// If normal points in positive direction of 'axis', plane is at i_slice + 1
-		// If normal points in negative direction of 'axis', plane is at i_slice
-		if(normalFloatVec[axis] > 0)
-		{ // Positive normal direction
-			originCoords[axis] = i_slice + 1.0f;
-		}
-		else
-		{ // Negative normal direction
-			originCoords[axis] = i_slice;
+		switch(axis)
+		{
+			case AXIS_X:
+				return BlockStorage.index(slice, u, v);
+			case AXIS_Y:
+				return BlockStorage.index(u, slice, v);
+			default:
+				return BlockStorage.index(u, v, slice);
 		}
-		ox = originCoords[0];
-		oy = originCoords[1];
-		oz = originCoords[2];
-
-		outInstanceData.add(new QuadInstanceData(ox, oy, oz, (float) quadHeight, (float) quadWidth, normalID, blockTypeID));
 	}
 
-
-	// uploadToGPU now takes the list of instance data
-	public void uploadToGPU(List<QuadInstanceData> instanceDataList)
+	private static void addQuadInstance(PackedQuads outInstanceData, int axis, boolean positive,
+										int slice, int uStart, int vStart,
+										int quadHeight, int quadWidth, // height along u_axis, width along v_axis
+										byte normalID, short blockTypeID)
 	{
-		this.instanceCount = instanceDataList.size();
-		if(this.instanceCount == 0)
+		// If normal points in positive direction of 'axis', plane is at slice + 1, otherwise at slice
+		int plane = positive ? slice + 1 : slice;
+		int ox, oy, oz;
+		switch(axis)
 		{
-			return; // No instances to render
+			case AXIS_X:
+				ox = plane;
+				oy = uStart;
+				oz = vStart;
+				break;
+			case AXIS_Y:
+				ox = uStart;
+				oy = plane;
+				oz = vStart;
+				break;
+			default:
+				ox = uStart;
+				oy = vStart;
+				oz = plane;
+				break;
 		}
+		outInstanceData.add(ox | (oy << 7) | (oz << 14) | (normalID << 21),
+				quadHeight | (quadWidth << 7) | ((blockTypeID & 0xFFFF) << 14));
+	}
 
-		FloatBuffer instanceBuffer = MemoryUtil.memAllocFloat(this.instanceCount * QuadInstanceData.FLOAT_COUNT);
-		for(QuadInstanceData data : instanceDataList)
+	/**
+	 * Appends packed quads to a pooled off-heap buffer, growing it when full.
+	 * The buffer is in native byte order, so glBufferData can take it as-is.
+	 */
+	private static class PackedQuads
+	{
+		ByteBuffer buffer;
+
+		void begin(ByteBuffer buffer)
 		{
-			data.writeToBuffer(instanceBuffer);
+			this.buffer = buffer;
 		}
-		instanceBuffer.flip();
 
-		GL30.glBindVertexArray(this.vaoID);
+		void add(int word0, int word1)
+		{
+			if(buffer.remaining() < BYTES_PER_QUAD)
+			{
+				buffer = MeshBufferPool.ensureCapacity(buffer, BYTES_PER_QUAD);
+			}
+			buffer.putInt(word0);
+			buffer.putInt(word1);
+		}
 
-		// 1. Base Quad Vertex Buffer (Attribute 0 for vertex position)
-		// This VBO is static and shared, bound externally or assumed to be bound
-		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, baseQuadVBO);
-		GL20.glEnableVertexAttribArray(0); // Shader location 0: vec2 a_baseVertexPos
-		GL20.glVertexAttribPointer(0, 2, GL11.GL_FLOAT, false, 0, 0);
-
-		// 2. Instance Data Buffer (Attributes 1 onwards)
-		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, this.instanceVBOID);
-		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, instanceBuffer, GL15.GL_STATIC_DRAW); // Use STATIC_DRAW if mesh changes infrequently, DYNAMIC_DRAW if often
-
-		int stride = QuadInstanceData.FLOAT_COUNT * Float.BYTES; // 7 floats * 4 bytes each
-		long offset = 0;
-
-		// Attribute 1: vec3 i_origin (originX, originY, originZ)
-		GL20.glEnableVertexAttribArray(1);
-		GL20.glVertexAttribPointer(1, 3, GL11.GL_FLOAT, false, stride, offset);
-		GL33.glVertexAttribDivisor(1, 1); // Data per instance
-		offset += 3 * Float.BYTES;
-
-		// Attribute 2: vec2 i_dimensions (dimensionH, dimensionW)
-		GL20.glEnableVertexAttribArray(2);
-		GL20.glVertexAttribPointer(2, 2, GL11.GL_FLOAT, false, stride, offset);
-		GL33.glVertexAttribDivisor(2, 1);
-		offset += 2 * Float.BYTES;
-
-		// Attribute 3: uint i_normalID (normalID_float)
-		GL20.glEnableVertexAttribArray(3);
-		GL20.glVertexAttribPointer(3, 1, GL11.GL_FLOAT, false, stride, offset); // Sending as float, shader can cast to uint
-		GL33.glVertexAttribDivisor(3, 1);
-		offset += 1 * Float.BYTES;
-
-		// Attribute 4: uint i_blockTypeID (blockTypeID_float)
-		GL20.glEnableVertexAttribArray(4);
-		GL20.glVertexAttribPointer(4, 1, GL11.GL_FLOAT, false, stride, offset); // Sending as float, shader can cast to uint
-		GL33.glVertexAttribDivisor(4, 1);
-		// offset += 1 * Float.BYTES; // No more attributes after this for now
-
-		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
-		GL30.glBindVertexArray(0);
-
-		MemoryUtil.memFree(instanceBuffer);
-		Debug.checkGLError("ChunkMesh: uploadToGPU (Instanced)");
+		// Hands the written quads over and forgets the buffer, so the scratch never holds on to it
+		ByteBuffer finish()
+		{
+			ByteBuffer written = buffer;
+			buffer = null;
+			written.flip();
+			return written;
+		}
 	}
 
-	// Renamed to reflect it's for instanced setup
-	public void bindInstancedVAO()
+	/**
+	 * Reusable per-thread buffers for the mesher, so meshing a chunk allocates nothing per voxel.
+	 */
+	private static class MeshScratch
 	{
-		GL30.glBindVertexArray(this.vaoID);
+		final short[] blocks = new short[Chunk.CHUNK_VOLUME];
+		final long[] columnsX = new long[COLUMN_COUNT];
+		final long[] columnsY = new long[COLUMN_COUNT];
+		final long[] columnsZ = new long[COLUMN_COUNT];
+		final long[] plane = new long[Chunk.CHUNK_SIZE * Chunk.CHUNK_SIZE]; // [slice][u], bits along v
+		final PackedQuads quads = new PackedQuads(); // Only holds a buffer while a chunk is being meshed
 	}
 
-	public void unbindInstancedVAO()
+
+	// uploadToGPU takes the packed instance data, INTS_PER_QUAD ints per quad, or null for an empty mesh
+	// The buffer is read from its position to its limit and left untouched, the caller releases it afterwards
+	// The quads go into this mesh's range of the shared arena, which is reused when the new mesh still fits
+	public void uploadToGPU(ByteBuffer packedQuads, ChunkBufferArena arena)
 	{
-		GL30.glBindVertexArray(0);
+		this.instanceCount = packedQuads == null ? 0 : packedQuads.remaining() / BYTES_PER_QUAD;
+		if(this.instanceCount == 0)
+		{
+			freeAllocation();
+			return; // No instances to render
+		}
+
+		if(allocation == null || allocation.getLength() < instanceCount || this.arena != arena)
+		{
+			freeAllocation();
+			this.arena = arena;
+			allocation = arena.allocate(instanceCount);
+		}
+		arena.upload(allocation, packedQuads);
+		if(Debug.GL_ERROR_POLLING) Debug.checkGLError("ChunkMesh: uploadToGPU (Instanced)");
 	}
 
 	public int getInstanceCount()
@@ -323,46 +390,27 @@ public class ChunkMesh
 		return instanceCount;
 	}
 
+	/**
+	 * @return First quad of this mesh in the arena buffer, passed as the base instance when drawing.
+	 */
+	public int getBaseInstance()
+	{
+		return allocation == null ? 0 : allocation.getStart();
+	}
+
 	public void cleanup()
 	{
-		if(vaoID != 0)
-		{ // Check vaoID as it's created in constructor
-			GL30.glBindVertexArray(0); // Unbind before deleting
-			GL15.glDeleteBuffers(this.instanceVBOID);
-			GL30.glDeleteVertexArrays(this.vaoID);
-			vaoID = 0;
-			instanceVBOID = 0;
-			instanceCount = 0;
-		}
+		freeAllocation();
+		instanceCount = 0;
 		// Static baseQuadVBO is cleaned up separately by `cleanupBaseQuad()`
 	}
 
-	public class QuadInstanceData
+	private void freeAllocation()
 	{
-		float originX, originY, originZ;
-		float dimensionH; // Corresponds to 'height' in greedy meshing (u-axis extent)
-		float dimensionW; // Corresponds to 'width' in greedy meshing (v-axis extent)
-		float normalID_float; // Store as float for easy VBO
-		float blockTypeID_float; // Store as float for easy VBO
-
-		public static final int FLOAT_COUNT = 7;
-
-		public QuadInstanceData(float ox, float oy, float oz, float dH, float dW, byte normalID, byte blockTypeID)
-		{
-			this.originX = ox;
-			this.originY = oy;
-			this.originZ = oz;
-			this.dimensionH = dH; // Greedy height
-			this.dimensionW = dW; // Greedy width
-			this.normalID_float = normalID;
-			this.blockTypeID_float = blockTypeID;
-		}
-
-		public void writeToBuffer(FloatBuffer buffer)
+		if(allocation != null)
 		{
-			buffer.put(originX).put(originY).put(originZ);
-			buffer.put(dimensionH).put(dimensionW);
-			buffer.put(normalID_float).put(blockTypeID_float);
+			arena.free(allocation);
+			allocation = null;
 		}
 	}
 
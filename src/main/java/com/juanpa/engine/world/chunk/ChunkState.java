@@ -0,0 +1,15 @@
+package com.juanpa.engine.world.chunk;
+
+/**
+ * Lifecycle stages a chunk goes through from being requested to being drawable.
+ * The main thread drives every transition except GENERATING -> GENERATED, which is
+ * set by the worker thread once the block data is filled in.
+ */
+public enum ChunkState
+{
+	EMPTY,      // Created, no block data yet
+	GENERATING, // Block data is being generated on a worker thread
+	GENERATED,  // Block data is ready, chunk can be inserted into the world
+	MESHING,    // Mesh data is being built on a worker thread
+	UPLOADED    // Mesh data is on the GPU and registered with the renderer
+}
@@ -1,17 +1,29 @@
 package com.juanpa.engine.world.chunk;
 
-import java.util.List;
+import java.nio.ByteBuffer;
 
-// In World.java or a separate file
-// (Assuming QuadInstanceData is accessible, e.g. public static class in ChunkMesh or its own file)
+// Result of an instanced chunk mesh job, handed from the worker thread to the main thread for upload
+// The result owns its buffer: whoever consumes it must release it to the MeshBufferPool, uploaded or not
 public class InstancedChunkMeshJobResult
 {
 	public final ChunkCoord coord;
-	public final List<ChunkMesh.QuadInstanceData> instanceData; // Changed from float[]/byte[]
+	public final Chunk chunk; // The chunk object that was meshed, a reloaded chunk at the same coord is a different object
+	public final int meshRevision; // Chunk.getMeshRevision() when the job was submitted
+	public final ByteBuffer instanceData; // Packed quads, ChunkMesh.BYTES_PER_QUAD bytes each, or null if the mesh is empty
 
-	public InstancedChunkMeshJobResult(ChunkCoord coord, List<ChunkMesh.QuadInstanceData> instanceData)
+	public InstancedChunkMeshJobResult(Chunk chunk, int meshRevision, ByteBuffer instanceData)
 	{
-		this.coord = coord;
+		this.coord = chunk.getCoord();
+		this.chunk = chunk;
+		this.meshRevision = meshRevision;
 		this.instanceData = instanceData;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * True if the chunk was unloaded or a newer mesh job was submitted since this one.
+	 */
+	public boolean isStale()
+	{
+		return chunk.isCancelled() || chunk.getMeshRevision() != meshRevision;
+	}
+}
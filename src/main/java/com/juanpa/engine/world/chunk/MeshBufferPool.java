@@ -0,0 +1,90 @@
+package com.juanpa.engine.world.chunk;
+
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of off-heap buffers the mesher writes packed quads into.
+ * A mesh job acquires a buffer on a worker thread, the job result owns it until the main thread
+ * has passed it to glBufferData, and then it is released back here for the next job.
+ * Buffers only grow (see {@link #ensureCapacity(ByteBuffer, int)}), so after warming up a pooled
+ * buffer is big enough for most chunks and meshing allocates nothing.
+ */
+public class MeshBufferPool
+{
+	private static final int INITIAL_CAPACITY = 64 * 1024; // 8192 quads
+	private static final int MAX_POOLED_BUFFERS = 32; // Extra buffers past this are freed on release
+
+	private final Queue<ByteBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pooledCount = new AtomicInteger();
+	private volatile boolean disposed;
+
+	/**
+	 * @return An empty buffer in native byte order, ready to be written from position 0.
+	 */
+	public ByteBuffer acquire()
+	{
+		ByteBuffer buffer = freeBuffers.poll();
+		if(buffer == null)
+		{
+			return MemoryUtil.memAlloc(INITIAL_CAPACITY);
+		}
+		pooledCount.decrementAndGet();
+		buffer.clear();
+		return buffer;
+	}
+
+	/**
+	 * Makes room for at least the given number of bytes after the current position.
+	 * The buffer may be moved, so the returned buffer must be used instead of the old one.
+	 */
+	public static ByteBuffer ensureCapacity(ByteBuffer buffer, int bytes)
+	{
+		if(buffer.remaining() >= bytes)
+		{
+			return buffer;
+		}
+		int needed = buffer.position() + bytes;
+		int newCapacity = Math.max(buffer.capacity() * 2, needed);
+		return MemoryUtil.memRealloc(buffer, newCapacity); // Keeps the position and contents
+	}
+
+	/**
+	 * Returns a buffer to the pool. Null is ignored, so callers can release results without checking.
+	 */
+	public void release(ByteBuffer buffer)
+	{
+		if(buffer == null)
+		{
+			return;
+		}
+		if(disposed || pooledCount.incrementAndGet() > MAX_POOLED_BUFFERS)
+		{
+			if(!disposed)
+			{
+				pooledCount.decrementAndGet();
+			}
+			MemoryUtil.memFree(buffer);
+			return;
+		}
+		freeBuffers.add(buffer);
+	}
+
+	/**
+	 * Frees every pooled buffer. Buffers released afterwards are freed right away.
+	 */
+	public void dispose()
+	{
+		disposed = true;
+		ByteBuffer buffer;
+		while((buffer = freeBuffers.poll()) != null)
+		{
+			MemoryUtil.memFree(buffer);
+		}
+		pooledCount.set(0);
+	}
+}
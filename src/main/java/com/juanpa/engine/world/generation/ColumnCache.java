@@ -0,0 +1,133 @@
+package com.juanpa.engine.world.generation;
+
+import com.juanpa.engine.world.chunk.Chunk;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the terrain surface height of every XZ chunk column.
+ * The heightmap only depends on X and Z, so all vertical chunks of a column share one
+ * evaluation of the 2D noise instead of repeating it per Y level.
+ * Safe to use from the chunk generation threads; the World evicts a column once none of its chunks are loaded.
+ */
+public class ColumnCache
+{
+	// Noise parameters for height generation
+	private static final int NUM_OCTAVES = 8; // More octaves create more detailed terrain
+	private static final float LACUNARITY = 2.0f; // How quickly frequency increases per octave (causes detail)
+	private static final float PERSISTENCE = 0.5f; // How quickly amplitude decreases per octave (causes detail)
+	private static final float INITIAL_FREQUENCY = 0.002f; // Controls the "largeness" of features
+	private static final float HEIGHT_SCALE = 100.0f; // Maximum height variation
+	public static final int BASE_SEA_LEVEL = 50; // The base height of the terrain, like sea level
+	private static final int MAX_SURFACE_HEIGHT = 400;
+
+	private final FastNoiseLite noiseGenerator; // Only read after setup, so it can be shared between threads
+	private final int minSurfaceHeight;
+	private final Map<Long, Column> columns = new ConcurrentHashMap<>();
+
+	/**
+	 * @param seed             World seed for the height noise.
+	 * @param minSurfaceHeight Lowest surface the generator allows, so the block layers below it always fit.
+	 */
+	public ColumnCache(long seed, int minSurfaceHeight)
+	{
+		this.minSurfaceHeight = minSurfaceHeight;
+
+		noiseGenerator = new FastNoiseLite((int) seed);
+		noiseGenerator.SetNoiseType(FastNoiseLite.NoiseType.Perlin);
+		noiseGenerator.SetFractalType(FastNoiseLite.FractalType.FBm); // Fractal Brownian Motion
+		noiseGenerator.SetFractalOctaves(NUM_OCTAVES);
+		noiseGenerator.SetFractalLacunarity(LACUNARITY);
+		noiseGenerator.SetFractalGain(PERSISTENCE);
+		noiseGenerator.SetFrequency(INITIAL_FREQUENCY);
+	}
+
+	/**
+	 * Returns the column at the given chunk XZ, computing it if needed.
+	 * Concurrent callers for the same column wait for a single computation.
+	 */
+	public Column get(int chunkX, int chunkZ)
+	{
+		return columns.computeIfAbsent(key(chunkX, chunkZ), k -> computeColumn(chunkX, chunkZ));
+	}
+
+	public void evict(int chunkX, int chunkZ)
+	{
+		columns.remove(key(chunkX, chunkZ));
+	}
+
+	public void clear()
+	{
+		columns.clear();
+	}
+
+	public int size()
+	{
+		return columns.size();
+	}
+
+	private static long key(int chunkX, int chunkZ)
+	{
+		return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+	}
+
+	private Column computeColumn(int chunkX, int chunkZ)
+	{
+		int worldStartX = chunkX * Chunk.CHUNK_SIZE;
+		int worldStartZ = chunkZ * Chunk.CHUNK_SIZE;
+
+		int[] heights = new int[Chunk.CHUNK_SIZE * Chunk.CHUNK_SIZE];
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+
+		for(int z = 0; z < Chunk.CHUNK_SIZE; z++)
+		{
+			for(int x = 0; x < Chunk.CHUNK_SIZE; x++)
+			{
+				// Get the height from the noise generator
+				float noiseValue = noiseGenerator.GetNoise(worldStartX + x, worldStartZ + z);
+
+				// Remap noise from [-1, 1] to [0, 1]
+				noiseValue = (noiseValue + 1.0f) / 2.0f;
+
+				// Calculate the final surface height
+				int surfaceHeight = BASE_SEA_LEVEL + (int) (noiseValue * HEIGHT_SCALE);
+				surfaceHeight = Math.min(surfaceHeight, MAX_SURFACE_HEIGHT);
+				surfaceHeight = Math.max(surfaceHeight, minSurfaceHeight); // Ensure enough space for layers
+
+				heights[Column.index(x, z)] = surfaceHeight;
+				min = Math.min(min, surfaceHeight);
+				max = Math.max(max, surfaceHeight);
+			}
+		}
+		return new Column(heights, min, max);
+	}
+
+	/**
+	 * Surface heights of one chunk column, indexed by local x + z * CHUNK_SIZE. Immutable once built.
+	 */
+	public static class Column
+	{
+		private final int[] surfaceHeights;
+		public final int minSurfaceHeight;
+		public final int maxSurfaceHeight;
+
+		Column(int[] surfaceHeights, int minSurfaceHeight, int maxSurfaceHeight)
+		{
+			this.surfaceHeights = surfaceHeights;
+			this.minSurfaceHeight = minSurfaceHeight;
+			this.maxSurfaceHeight = maxSurfaceHeight;
+		}
+
+		static int index(int localX, int localZ)
+		{
+			return localX + localZ * Chunk.CHUNK_SIZE;
+		}
+
+		public int getSurfaceHeight(int localX, int localZ)
+		{
+			return surfaceHeights[index(localX, localZ)];
+		}
+	}
+}
@@ -89,7 +89,7 @@ public class Game
 		if(activeCamera != null)
 		{
 			engine.renderer.clear();
-			engine.renderer.render(activeCamera.getViewMatrix(), activeCamera.getProjectionMatrix()); // World renders its chunks using the current camera matrices
+			engine.renderer.render(activeCamera); // World renders its chunks using the current camera matrices
 			// TODO: Render any other GameObjects that have Renderable components
 		}
 		else
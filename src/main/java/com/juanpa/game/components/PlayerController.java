@@ -7,9 +7,15 @@ import com.juanpa.engine.components.Component;
 import com.juanpa.engine.components.Transform;
 import com.juanpa.engine.input.Input;
 import com.juanpa.engine.input.KeyCode;
+import com.juanpa.engine.math.AABB;
+import com.juanpa.engine.physics.CollisionResult;
+import com.juanpa.engine.physics.RaycastHit;
+import com.juanpa.engine.physics.VoxelCollider;
+import com.juanpa.engine.physics.VoxelRaycaster;
+import com.juanpa.engine.world.BlockReader;
+import com.juanpa.engine.world.World;
 import com.juanpa.game.Game;
 import org.joml.Vector3f;
-import org.joml.Vector3i;
 import org.lwjgl.glfw.GLFW;
 
 public class PlayerController extends Component
@@ -29,6 +35,14 @@ public class PlayerController extends Component
 	private final float REACH_DISTANCE = 1000.0f; // How far the player can reach blocks
 
 	private Vector3f velocity = new Vector3f(0, 0, 0); // Current player velocity
+	private BlockReader blockReader; // Block queries of collision and raycasts, remembers the last chunk
+	private final VoxelCollider collider = new VoxelCollider();
+	private final CollisionResult collision = new CollisionResult();
+	private final AABB bodyBox = new AABB(); // Reused every frame
+	private final Vector3f displacement = new Vector3f();
+	private final VoxelRaycaster raycaster = new VoxelRaycaster();
+	private final RaycastHit raycastHit = new RaycastHit(); // Block the player is looking at, valid when a cast hits
+	private final Vector3f rayDirection = new Vector3f();
 	private boolean onGround = false; // To prevent multiple jumps
 
 	// --- Creative Mode Variables ---
@@ -150,75 +164,41 @@ public class PlayerController extends Component
 		}
 		else
 		{
-			// --- Survival Mode (Original Logic) ---
+			// --- Survival Mode ---
 
 			// --- Apply Gravity ---
 			velocity.y += GRAVITY * Time.deltaTime;
 
 			// --- Apply Velocity and Handle Collisions ---
-			// Horizontal Collision (X and Z)
-			float stepX = velocity.x * Time.deltaTime;
-			float stepZ = velocity.z * Time.deltaTime;
+			// The body is swept through the blocks along each axis, so it stops at the exact contact point at any speed
+			float halfWidth = PLAYER_WIDTH / 2.0f;
+			bodyBox.min.set(transform.position.x - halfWidth, transform.position.y, transform.position.z - halfWidth);
+			bodyBox.max.set(transform.position.x + halfWidth, transform.position.y + PLAYER_HEIGHT, transform.position.z + halfWidth);
+			displacement.set(velocity).mul(Time.deltaTime);
+			boolean currentlyCollidingBelow = false;
 
-			if(stepX != 0 || stepZ != 0)
+			if(game.getWorld() != null)
 			{
-				// Check for X-axis collision
-				if(checkCollision(transform.position.x + stepX, transform.position.y, transform.position.z))
+				collider.move(bodyBox, displacement, getBlockReader(), collision);
+				transform.position.set(bodyBox.min.x + halfWidth, bodyBox.min.y, bodyBox.min.z + halfWidth);
+				if(collision.hitX)
 				{
 					velocity.x = 0; // Stop horizontal movement
 				}
-				else
-				{
-					transform.position.x += stepX;
-				}
-
-				// Check for Z-axis collision
-				if(checkCollision(transform.position.x, transform.position.y, transform.position.z + stepZ))
+				if(collision.hitZ)
 				{
-					velocity.z = 0; // Stop horizontal movement
+					velocity.z = 0;
 				}
-				else
+				if(collision.hitY)
 				{
-					transform.position.z += stepZ;
-				}
-			}
-
-			// Vertical Collision (Y)
-			float stepY = velocity.y * Time.deltaTime;
-			// Assume player is not on ground at the start of each frame unless collision proves otherwise
-			boolean currentlyCollidingBelow = false;
-
-			if(stepY != 0)
-			{
-				if(checkCollision(transform.position.x, transform.position.y + stepY, transform.position.z))
-				{
-					// If moving down and hit ground
-					if(velocity.y < 0)
-					{
-						// Snap to the block surface just above the player's feet
-						transform.position.y = (float) Math.floor(transform.position.y + stepY) + 1.0f + 0.001f;
-						currentlyCollidingBelow = true; // Player has hit ground
-					}
+					// Gravity pulls the player down every frame, so standing still still sweeps into the ground
+					currentlyCollidingBelow = velocity.y < 0;
 					velocity.y = 0; // Stop vertical movement
 				}
-				else
-				{
-					transform.position.y += stepY;
-					// If moving vertically and no collision, player is definitely not on ground
-					currentlyCollidingBelow = false;
-				}
 			}
 			else
-			{ // stepY is 0, meaning no vertical velocity applied this frame
-				// If not moving vertically, check if there's ground directly beneath the player's feet
-				if(checkCollision(transform.position.x, transform.position.y - 0.01f, transform.position.z))
-				{
-					currentlyCollidingBelow = true;
-				}
-				else
-				{
-					currentlyCollidingBelow = false;
-				}
+			{
+				transform.position.add(displacement);
 			}
 
 			// Update the onGround status once, at the end of vertical collision logic
@@ -235,35 +215,34 @@ public class PlayerController extends Component
 		// --- Block Interaction (Raycasting) (common to both modes) ---
 		if(game.getWorld() != null)
 		{
-			// Fix: Ray origin should be where the camera is.
+			// Ray origin should be where the camera is.
 			// The camera offset is relative to the player's transform.position.
-			Vector3f rayOrigin = new Vector3f(transform.position.x, transform.position.y + gameObject.getComponent(Camera.class).offset.y, transform.position.z);
+			float rayOriginY = transform.position.y + gameObject.getComponent(Camera.class).offset.y;
 
-			Vector3f rayDirection = new Vector3f(0, 0, -1);
+			rayDirection.set(0, 0, -1);
 			transform.rotation.transform(rayDirection); // Get the forward direction based on player rotation
-			rayDirection.normalize();
 
-			RaycastResult result = raycast(rayOrigin, rayDirection, REACH_DISTANCE);
+			boolean hitBlock = raycaster.cast(transform.position.x, rayOriginY, transform.position.z,
+					rayDirection.x, rayDirection.y, rayDirection.z, REACH_DISTANCE, getBlockReader(), raycastHit);
 
-			if(result != null)
+			if(hitBlock)
 			{
 				if(Input.getMouseButton(GLFW.GLFW_MOUSE_BUTTON_LEFT))
 				{
 					// Break the hit block
-					//Debug.logInfo("Breaking block at: " + result.hitBlock.x + ", " + result.hitBlock.y + ", " + result.hitBlock.z);
-					game.getWorld().setBlock(result.hitBlock, com.juanpa.engine.world.World.BLOCK_TYPE_AIR_ID);
+					game.getWorld().setBlock(raycastHit.blockX, raycastHit.blockY, raycastHit.blockZ, com.juanpa.engine.world.World.BLOCK_TYPE_AIR_ID);
 				}
 				else if(Input.getMouseButton(GLFW.GLFW_MOUSE_BUTTON_RIGHT))
 				{
-					// Place a block on the hit face
-					// This logic is already correct for placing adjacent to the hit block
-					Vector3i placeBlockPos = new Vector3i(result.hitBlock).add(result.hitFaceNormal);
-					//Debug.logInfo("Attempting to place block at: " + placeBlockPos.x + ", " + placeBlockPos.y + ", " + placeBlockPos.z);
+					// Place a block against the face the ray entered through
+					int placeX = raycastHit.blockX + raycastHit.normalX;
+					int placeY = raycastHit.blockY + raycastHit.normalY;
+					int placeZ = raycastHit.blockZ + raycastHit.normalZ;
 
 					// Prevent placing block inside player
-					if(!isPlayerOccupyingBlock(placeBlockPos))
+					if(!isPlayerOccupyingBlock(placeX, placeY, placeZ))
 					{
-						game.getWorld().setBlock(placeBlockPos, com.juanpa.engine.world.World.BLOCK_TYPE_SOLID_ID);
+						game.getWorld().setBlock(placeX, placeY, placeZ, com.juanpa.engine.world.World.BLOCK_TYPE_SOLID_ID);
 						//Debug.logInfo("Block placed successfully!");
 					}
 					else
@@ -280,76 +259,26 @@ public class PlayerController extends Component
 	}
 
 	/**
-	 * Checks for collision at a given world position.
-	 * This is a basic AABB (Axis-Aligned Bounding Box) collision check
-	 * against individual blocks in the world.
-	 * The player's bounding box starts at `y` (feet) and extends up to `y + PLAYER_HEIGHT`.
-	 *
-	 * @param x The target X position (player's center X).
-	 * @param y The target Y position (player's feet Y).
-	 * @param z The target Z position (player's center Z).
-	 * @return True if a collision occurs, false otherwise.
+	 * Returns the block reader for the current world, making a new one if the world changed.
 	 */
-	private boolean checkCollision(float x, float y, float z)
+	private BlockReader getBlockReader()
 	{
-		if(game.getWorld() == null)
-		{
-			return false;
-		}
-
-		// Define the player's bounding box in world coordinates
-		float playerMinX = x - PLAYER_WIDTH / 2.0f;
-		float playerMaxX = x + PLAYER_WIDTH / 2.0f;
-		float playerMinY = y; // Player's feet
-		float playerMaxY = y + PLAYER_HEIGHT; // Player's head
-		float playerMinZ = z - PLAYER_WIDTH / 2.0f;
-		float playerMaxZ = z + PLAYER_WIDTH / 2.0f;
-
-		// Iterate through all blocks that the player's bounding box *could* overlap with
-		for(int blockX = (int) Math.floor(playerMinX); blockX < (int) Math.ceil(playerMaxX); blockX++)
+		World world = game.getWorld();
+		if(blockReader == null || blockReader.getWorld() != world)
 		{
-			for(int blockY = (int) Math.floor(playerMinY); blockY < (int) Math.ceil(playerMaxY); blockY++)
-			{
-				for(int blockZ = (int) Math.floor(playerMinZ); blockZ < (int) Math.ceil(playerMaxZ); blockZ++)
-				{
-
-					short blockType = game.getWorld().getBlock(new Vector3i(blockX, blockY, blockZ));
-
-					// If the block is solid (not air), check for collision
-					if(blockType != com.juanpa.engine.world.World.BLOCK_TYPE_AIR_ID)
-					{
-						// Define the current block's bounding box (each block is 1x1x1)
-						float blockMinX = (float) blockX;
-						float blockMaxX = (float) blockX + 1.0f;
-						float blockMinY = (float) blockY;
-						float blockMaxY = (float) blockY + 1.0f;
-						float blockMinZ = (float) blockZ;
-						float blockMaxZ = (float) blockZ + 1.0f;
-
-						// Check for overlap between player and block bounding boxes
-						boolean overlapX = playerMaxX > blockMinX && playerMinX < blockMaxX;
-						boolean overlapY = playerMaxY > blockMinY && playerMinY < blockMaxY;
-						boolean overlapZ = playerMaxZ > blockMinZ && playerMinZ < blockMaxZ;
-
-						if(overlapX && overlapY && overlapZ)
-						{
-							return true; // Collision detected
-						}
-					}
-				}
-			}
+			blockReader = new BlockReader(world);
 		}
-		return false; // No collision
+		return blockReader;
 	}
 
 	/**
 	 * Checks if the player's current bounding box overlaps with a specific target block position.
 	 * This is used to prevent placing blocks inside the player.
 	 *
-	 * @param blockPosition The integer coordinates of the block to check for overlap.
+	 * @param blockX X of the block to check for overlap, likewise blockY and blockZ.
 	 * @return True if the player is currently occupying the space of the given block, false otherwise.
 	 */
-	private boolean isPlayerOccupyingBlock(Vector3i blockPosition)
+	private boolean isPlayerOccupyingBlock(int blockX, int blockY, int blockZ)
 	{
 		Transform transform = gameObject.getTransform();
 		if(transform == null)
@@ -367,12 +296,12 @@ public class PlayerController extends Component
 		float playerMaxZ = transform.position.z + PLAYER_WIDTH / 2.0f;
 
 		// Proposed new block's bounding box (1x1x1 unit cube)
-		float blockMinX = (float) blockPosition.x;
-		float blockMaxX = (float) blockPosition.x + 1.0f;
-		float blockMinY = (float) blockPosition.y;
-		float blockMaxY = (float) blockPosition.y + 1.0f;
-		float blockMinZ = (float) blockPosition.z;
-		float blockMaxZ = (float) blockPosition.z + 1.0f;
+		float blockMinX = (float) blockX;
+		float blockMaxX = (float) blockX + 1.0f;
+		float blockMinY = (float) blockY;
+		float blockMaxY = (float) blockY + 1.0f;
+		float blockMinZ = (float) blockZ;
+		float blockMaxZ = (float) blockZ + 1.0f;
 
 		// Check for overlap between player's bounding box and the proposed new block's bounding box
 		boolean overlapX = playerMaxX > blockMinX && playerMinX < blockMaxX;
@@ -381,134 +310,4 @@ public class PlayerController extends Component
 
 		return overlapX && overlapY && overlapZ;
 	}
-
-
-	/**
-	 * Performs a raycast to find the first solid block hit by a ray.
-	 * This is a simplified DDA (Digital Differential Analyzer) raycasting algorithm.
-	 *
-	 * @param origin      The starting point of the ray (e.g., player's eye position).
-	 * @param direction   The normalized direction vector of the ray.
-	 * @param maxDistance The maximum distance to cast the ray.
-	 * @return A RaycastResult object if a block is hit, null otherwise.
-	 */
-	private RaycastResult raycast(Vector3f origin, Vector3f direction, float maxDistance)
-	{
-		if(game.getWorld() == null)
-		{
-			return null;
-		}
-
-		Vector3f currentRayPos = new Vector3f(origin);
-		Vector3i lastBlockCoords = null; // Stores the integer coordinates of the block the ray was *just in*
-
-		float stepIncrement = 0.05f; // Smaller step for more precision
-
-		for(float dist = 0; dist < maxDistance; dist += stepIncrement)
-		{
-			// Calculate the position *before* the current step, which was still in the previous block
-			Vector3f prevRayPos = new Vector3f(currentRayPos);
-			currentRayPos.add(new Vector3f(direction).mul(stepIncrement));
-
-			int blockX = (int) Math.floor(currentRayPos.x);
-			int blockY = (int) Math.floor(currentRayPos.y);
-			int blockZ = (int) Math.floor(currentRayPos.z);
-
-			Vector3i currentBlockCoords = new Vector3i(blockX, blockY, blockZ);
-
-			// If we just entered a new block (or for the very first block hit)
-			if(lastBlockCoords == null || !currentBlockCoords.equals(lastBlockCoords))
-			{
-				short blockType = game.getWorld().getBlock(currentBlockCoords);
-
-				if(blockType != com.juanpa.engine.world.World.BLOCK_TYPE_AIR_ID)
-				{
-					// Collision detected with a solid block!
-					Vector3i hitBlock = currentBlockCoords;
-					Vector3i hitFaceNormal = new Vector3i();
-
-					// Determine the hit face normal.
-					// This is done by comparing the current block (hitBlock) with the block
-					// that the ray was in *just before* entering hitBlock.
-					// The difference `hitBlock - lastBlockCoords` (or `currentBlockCoords - floor(prevRayPos)`)
-					// gives the direction of traversal *into* the hit block.
-					// The normal of the hit face is the *opposite* of this direction.
-
-					// Get the block coordinates of the previous position of the ray.
-					int prevBlockX = (int) Math.floor(prevRayPos.x);
-					int prevBlockY = (int) Math.floor(prevRayPos.y);
-					int prevBlockZ = (int) Math.floor(prevRayPos.z);
-					Vector3i prevBlockCoords = new Vector3i(prevBlockX, prevBlockY, prevBlockZ);
-
-					// If prevBlockCoords is the same as hitBlock (meaning we started inside or very close)
-					// then we fall back to inferring from ray direction.
-					if(prevBlockCoords.equals(hitBlock))
-					{
-						// Ray started inside the hit block. Infer normal from ray direction.
-						// The normal should point AWAY from the ray's movement.
-						if(Math.abs(direction.x) > Math.abs(direction.y) && Math.abs(direction.x) > Math.abs(direction.z))
-						{
-							hitFaceNormal.x = (direction.x > 0) ? -1 : 1;
-						}
-						else if(Math.abs(direction.y) > Math.abs(direction.x) && Math.abs(direction.y) > Math.abs(direction.z))
-						{
-							hitFaceNormal.y = (direction.y > 0) ? -1 : 1;
-						}
-						else
-						{
-							hitFaceNormal.z = (direction.z > 0) ? -1 : 1;
-						}
-					}
-					else
-					{
-						// The ray moved from prevBlockCoords into hitBlock.
-						// The normal of the hit face is the direction *from* the hitBlock *back towards* the prevBlockCoords.
-						// Example: If ray moves from (0,0,0) to (1,0,0), it hit the -X face of (1,0,0).
-						// The normal of the -X face is (-1,0,0).
-						// (prevBlockCoords - hitBlock) gives us this.
-						hitFaceNormal.x = prevBlockCoords.x - hitBlock.x;
-						hitFaceNormal.y = prevBlockCoords.y - hitBlock.y;
-						hitFaceNormal.z = prevBlockCoords.z - hitBlock.z;
-
-						// Ensure it's a valid axis-aligned normal.
-						// This handles cases where it might have jumped a corner, forcing it to one axis.
-						if(hitFaceNormal.lengthSquared() > 1.001f)
-						{
-							if(Math.abs(hitFaceNormal.x) > Math.abs(hitFaceNormal.y) && Math.abs(hitFaceNormal.x) > Math.abs(hitFaceNormal.z))
-							{
-								hitFaceNormal.set(prevBlockCoords.x - hitBlock.x, 0, 0);
-							}
-							else if(Math.abs(hitFaceNormal.y) > Math.abs(hitFaceNormal.x) && Math.abs(hitFaceNormal.y) > Math.abs(hitFaceNormal.z))
-							{
-								hitFaceNormal.set(0, prevBlockCoords.y - hitBlock.y, 0);
-							}
-							else
-							{
-								hitFaceNormal.set(0, 0, prevBlockCoords.z - hitBlock.z);
-							}
-						}
-					}
-
-					return new RaycastResult(hitBlock, hitFaceNormal);
-				}
-			}
-			lastBlockCoords = currentBlockCoords; // Update lastBlockCoords for the next iteration
-		}
-		return null; // No block hit within maxDistance
-	}
-
-	/**
-	 * Helper class to store raycast results.
-	 */
-	private static class RaycastResult
-	{
-		public Vector3i hitBlock;
-		public Vector3i hitFaceNormal; // Normal of the face that was hit
-
-		public RaycastResult(Vector3i hitBlock, Vector3i hitFaceNormal)
-		{
-			this.hitBlock = hitBlock;
-			this.hitFaceNormal = hitFaceNormal;
-		}
-	}
-}
\ No newline at end of file
+}
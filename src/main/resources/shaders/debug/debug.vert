@@ -1,7 +1,13 @@
 #version 330 core
             layout (location = 0) in vec3 aPos;
-            uniform mat4 projectionMatrix;
-            uniform mat4 viewMatrix;
+            layout (std140) uniform FrameData { // See FrameUniforms, bound with ShaderProgram.bindUniformBlock
+                mat4 view;
+                mat4 projection;
+                mat4 viewProjection;
+                vec4 cameraPosition;
+                vec4 skyColor;
+                float time;
+            };
             void main() {
-                gl_Position = projectionMatrix * viewMatrix * vec4(aPos, 1.0);
+                gl_Position = viewProjection * vec4(aPos, 1.0);
             }
\ No newline at end of file
@@ -3,16 +3,31 @@
 // Base Quad Vertex Attribute (from shared VBO)
 layout (location = 0) in vec2 a_baseVertexPos; // 2D coords of the base 1x1 quad (0,0 to 1,1)
 
-// Per-Instance Attributes (from instance VBO)
-layout (location = 1) in vec3 i_origin;        // Origin of the greedy quad in chunk space
-layout (location = 2) in vec2 i_dimensions;    // i_dimensions.x = dimensionH (height), i_dimensions.y = dimensionW (width)
-layout (location = 3) in float i_normalID_float;  // Normal ID for the quad (0-5)
-layout (location = 4) in float i_blockTypeID_float;// Block Type ID for the quad
+// Per-Instance Attribute (from instance VBO), see ChunkMesh for the bit layout
+// x: originX | originY << 7 | originZ << 14 | normalID << 21
+// y: dimensionH | dimensionW << 7 | blockTypeID << 14
+layout (location = 1) in uvec2 i_packed;
+
+// World origin of each chunk in a multi-draw, indexed by gl_DrawID (see ChunkDrawCommandBuffer)
+layout (std430, binding = 0) readonly buffer ChunkOrigins
+{
+    ivec4 chunkOrigins[];
+};
 
 // Uniforms
-uniform mat4 modelMatrix;      // Chunk's world transform
-uniform mat4 viewMatrix;
-uniform mat4 projectionMatrix;
+uniform bool useChunkOriginBuffer; // True for the multi-draw path, false for one draw per chunk
+uniform ivec3 chunkOrigin;     // Chunk's world origin in blocks, only used when drawing one chunk per call
+
+// Per-frame camera data, see FrameUniforms for the layout (keep in sync)
+layout (std140) uniform FrameData
+{
+    mat4 view;
+    mat4 projection;
+    mat4 viewProjection;
+    vec4 cameraPosition; // xyz
+    vec4 skyColor;       // rgb
+    float time;          // Seconds since startup
+};
 
 // Outputs to Fragment Shader
 out vec3 v_worldPosition;
@@ -54,8 +69,10 @@ const vec3 face_V_direction[6] = vec3[]( // Direction for dimensionW (width, map
 
 void main()
 {
-    uint nID = uint(i_normalID_float); // Convert from float
-    uint bID = uint(i_blockTypeID_float); // Convert from float
+    vec3 i_origin = vec3(i_packed.x & 127u, (i_packed.x >> 7) & 127u, (i_packed.x >> 14) & 127u); // Origin of the greedy quad in chunk space
+    uint nID = (i_packed.x >> 21) & 7u; // Normal ID for the quad (0-5)
+    vec2 i_dimensions = vec2(i_packed.y & 127u, (i_packed.y >> 7) & 127u); // x = dimensionH (height), y = dimensionW (width)
+    uint bID = (i_packed.y >> 14) & 0xFFFFu; // Block Type ID for the quad
 
     nID = clamp(nID, 0u, 5u); // Safety clamp
 
@@ -73,12 +90,13 @@ void main()
     vec3 finalPosition_inChunk = i_origin + quadPointOffset;
 
     // Transform to world and clip space
-    vec4 worldPosition4 = modelMatrix * vec4(finalPosition_inChunk, 1.0);
+    ivec3 origin = useChunkOriginBuffer ? chunkOrigins[gl_DrawID].xyz : chunkOrigin;
+    vec4 worldPosition4 = vec4(finalPosition_inChunk + vec3(origin), 1.0);
     v_worldPosition = worldPosition4.xyz;
-    gl_Position = projectionMatrix * viewMatrix * worldPosition4;
+    gl_Position = viewProjection * worldPosition4;
 
-    // Transform normal to world space
-    v_normal = normalize(mat3(transpose(inverse(modelMatrix))) * N_modelSpace);
+    // Chunks are only translated, so model space normals are already world space normals
+    v_normal = N_modelSpace;
 
     v_blockTypeID = bID;
 }
\ No newline at end of file
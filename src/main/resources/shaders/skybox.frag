@@ -2,9 +2,18 @@
 
 out vec4 FragColor;
 
-uniform vec3 skyColor;
+// Per-frame camera data, see FrameUniforms for the layout (keep in sync)
+layout (std140) uniform FrameData
+{
+    mat4 view;
+    mat4 projection;
+    mat4 viewProjection;
+    vec4 cameraPosition; // xyz
+    vec4 skyColor;       // rgb
+    float time;          // Seconds since startup
+};
 
 void main()
 {
-    FragColor = vec4(skyColor, 1.0);
+    FragColor = vec4(skyColor.rgb, 1.0);
 }
@@ -2,8 +2,16 @@
 
 layout (location = 0) in vec3 aPos;
 
-uniform mat4 projection;
-uniform mat4 view;
+// Per-frame camera data, see FrameUniforms for the layout (keep in sync)
+layout (std140) uniform FrameData
+{
+    mat4 view;
+    mat4 projection;
+    mat4 viewProjection;
+    vec4 cameraPosition; // xyz
+    vec4 skyColor;       // rgb
+    float time;          // Seconds since startup
+};
 
 void main()
 {